@@ -0,0 +1,221 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.limit;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.skip;
+
+/**
+ * Builds the aggregations backing a DataTables query over a base pipeline (typically made of {@code $lookup},
+ * {@code $unwind} and {@code $addFields} stages).
+ * <p>
+ * The clauses which only touch fields of the base collection are pushed ahead of the pipeline, and the paging and
+ * sorting are applied before the pipeline when neither the filters nor the sort depend on a field added by the
+ * pipeline. In that case the counts are computed on the base collection only, without the join.
+ * <p>
+ * Only the {@code $lookup}, {@code $addFields}, {@code $set}, {@code $unwind} and {@code $match} stages are
+ * understood, any other stage disables the push-down. An {@code $unwind} stage is assumed to unwind a to-one join:
+ * the pipeline is considered to return one row per base document only if it unwinds with
+ * {@code preserveNullAndEmptyArrays}.
+ */
+final class DataTablesAggregation {
+
+    private final DataTablesInput input;
+    private final Class<?> domainType;
+    private final List<AggregationOperation> pipeline;
+    private final Criteria preFilteringCriteria;
+    private final DataTablesCriteria criteria;
+
+    private final Set<String> joinedFields = new HashSet<>();
+    private boolean isOpaque = false;
+    private boolean isRowPreserving = true;
+
+    DataTablesAggregation(DataTablesInput input, Class<?> domainType, List<? extends AggregationOperation> pipeline,
+                          Criteria additionalCriteria, Criteria preFilteringCriteria,
+                          DataTablesSearchIndex searchIndex) {
+        this.input = input;
+        this.domainType = domainType;
+        this.pipeline = new ArrayList<>(pipeline);
+        this.preFilteringCriteria = preFilteringCriteria;
+        this.criteria = new DataTablesCriteria(input, additionalCriteria, preFilteringCriteria, searchIndex);
+
+        this.pipeline.forEach(operation -> operation.toPipelineStages(Aggregation.DEFAULT_CONTEXT)
+                .forEach(this::analyzeStage));
+    }
+
+    boolean isTotalCountJoinFree() {
+        return isRowPreserving && (preFilteringCriteria == null || !dependsOnJoinedFields(preFilteringCriteria));
+    }
+
+    boolean isFilteredCountJoinFree() {
+        return isRowPreserving && criteria.toCriteria().stream().noneMatch(this::dependsOnJoinedFields);
+    }
+
+    Query toCountQuery() {
+        return criteria.toCountQuery();
+    }
+
+    Aggregation toTotalCountAggregation() {
+        return newAggregation(domainType, toTotalCountOperations());
+    }
+
+    Aggregation toCountAggregation() {
+        return newAggregation(domainType, toCountOperations());
+    }
+
+    Aggregation toAggregation() {
+        return newAggregation(domainType, toOperations());
+    }
+
+    List<AggregationOperation> toTotalCountOperations() {
+        List<Criteria> clauses = new ArrayList<>();
+        if (preFilteringCriteria != null) {
+            clauses.add(preFilteringCriteria);
+        }
+        List<AggregationOperation> operations = toFilteringOperations(clauses);
+        operations.add(Aggregation.count().as("count"));
+        return operations;
+    }
+
+    List<AggregationOperation> toCountOperations() {
+        List<AggregationOperation> operations = toFilteringOperations(criteria.toCriteria());
+        operations.add(Aggregation.count().as("count"));
+        return operations;
+    }
+
+    List<AggregationOperation> toOperations() {
+        Sort sort = criteria.toSort();
+        boolean isSortJoinFree = sort.stream().noneMatch(order -> dependsOnJoinedField(order.getProperty()));
+
+        List<AggregationOperation> operations;
+        if (isFilteredCountJoinFree() && isSortJoinFree) {
+            operations = new ArrayList<>();
+            addMatch(operations, criteria.toCriteria());
+            addPaging(operations, sort);
+            operations.addAll(pipeline);
+        } else {
+            operations = toFilteringOperations(criteria.toCriteria());
+            addPaging(operations, sort);
+        }
+        return operations;
+    }
+
+    private List<AggregationOperation> toFilteringOperations(List<Criteria> clauses) {
+        List<Criteria> baseClauses = new ArrayList<>();
+        List<Criteria> joinedClauses = new ArrayList<>();
+        clauses.forEach(clause -> (dependsOnJoinedFields(clause) ? joinedClauses : baseClauses).add(clause));
+
+        List<AggregationOperation> operations = new ArrayList<>();
+        addMatch(operations, baseClauses);
+        operations.addAll(pipeline);
+        addMatch(operations, joinedClauses);
+        return operations;
+    }
+
+    private void addMatch(List<AggregationOperation> operations, List<Criteria> clauses) {
+        if (clauses.isEmpty()) return;
+
+        Document matchObject = DataTablesQueryRewriter.rewrite(clauses);
+        if (!matchObject.isEmpty()) {
+            operations.add(context -> new Document("$match", context.getMappedObject(matchObject)));
+        }
+    }
+
+    private void addPaging(List<AggregationOperation> operations, Sort sort) {
+        if (sort.isSorted()) {
+            Document sortObject = new Document();
+            sort.forEach(order -> sortObject.put(order.getProperty(), order.isAscending() ? 1 : -1));
+            operations.add(context -> new Document("$sort", context.getMappedObject(sortObject)));
+        }
+        if (input.getStart() > 0) {
+            operations.add(skip((long) input.getStart()));
+        }
+        if (input.getLength() > 0) {
+            operations.add(limit(input.getLength()));
+        }
+    }
+
+    private void analyzeStage(Document stage) {
+        String name = stage.keySet().iterator().next();
+        Object body = stage.get(name);
+
+        switch (name) {
+            case "$lookup":
+                joinedFields.add(((Document) body).getString("as"));
+                break;
+            case "$addFields":
+            case "$set":
+                joinedFields.addAll(((Document) body).keySet());
+                break;
+            case "$unwind":
+                analyzeUnwindStage(body);
+                break;
+            case "$match":
+                isRowPreserving = false;
+                break;
+            default:
+                isOpaque = true;
+                isRowPreserving = false;
+        }
+    }
+
+    private void analyzeUnwindStage(Object body) {
+        String path;
+        boolean preserveNullAndEmptyArrays = false;
+        if (body instanceof Document) {
+            Document unwind = (Document) body;
+            path = unwind.getString("path");
+            preserveNullAndEmptyArrays = Boolean.TRUE.equals(unwind.getBoolean("preserveNullAndEmptyArrays"));
+            if (unwind.containsKey("includeArrayIndex")) {
+                joinedFields.add(unwind.getString("includeArrayIndex"));
+            }
+        } else {
+            path = String.valueOf(body);
+        }
+
+        // unwinding an array of the base collection changes the shape of the base documents
+        if (!dependsOnJoinedField(path.startsWith("$") ? path.substring(1) : path)) {
+            isOpaque = true;
+        }
+        if (!preserveNullAndEmptyArrays) {
+            isRowPreserving = false;
+        }
+    }
+
+    private boolean dependsOnJoinedFields(Criteria clause) {
+        Set<String> fields = new HashSet<>();
+        collectFields(clause.getCriteriaObject(), fields);
+        return fields.stream().anyMatch(this::dependsOnJoinedField);
+    }
+
+    private boolean dependsOnJoinedField(String field) {
+        if (isOpaque || field.startsWith("$")) return true;
+
+        return joinedFields.stream().anyMatch(joinedField -> field.equals(joinedField)
+                || field.startsWith(joinedField + ".")
+                || joinedField.startsWith(field + "."));
+    }
+
+    private static void collectFields(Map<?, ?> criteriaObject, Set<String> fields) {
+        criteriaObject.forEach((key, value) -> {
+            if ("$and".equals(key) || "$or".equals(key) || "$nor".equals(key)) {
+                ((Iterable<?>) value).forEach(clause -> collectFields((Map<?, ?>) clause, fields));
+            } else {
+                // other top-level operators ($expr, $where, $text...) are kept as is, and thus considered as joined
+                fields.add(String.valueOf(key));
+            }
+        });
+    }
+}
@@ -0,0 +1,126 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * Reads the documents as arrays of values, one per column of the {@link DataTablesInput}, without mapping them to
+ * entities: only the fields of the columns are fetched, and the values are extracted from the raw documents (so the
+ * custom converters are not applied).
+ * <p>
+ * The columns of an array-based table are declared without {@code data} on the client-side, so DataTables sends their
+ * index as {@code columns[i][data]}: the field of each column is thus read from {@code columns[i][name]}, and from
+ * {@code columns[i][data]} only when it is not an index.
+ */
+final class DataTablesArrays {
+
+    private final QueryMapper queryMapper;
+    private final MongoPersistentEntity<?> entity;
+    private final String[][] fieldPaths;
+
+    DataTablesArrays(DataTablesInput input, MongoConverter converter, Class<?> domainType) {
+        this.queryMapper = new QueryMapper(converter);
+        this.entity = converter.getMappingContext().getPersistentEntity(domainType);
+
+        List<DataTablesInput.Column> columns = input.getColumns();
+        this.fieldPaths = new String[columns.size()][];
+        for (int i = 0; i < columns.size(); i++) {
+            String field = getField(columns.get(i));
+            if (field != null) {
+                String fieldName = queryMapper.getMappedFields(new Document(field, 1), entity).keySet().iterator().next();
+                fieldPaths[i] = fieldName.split("\\.");
+            }
+        }
+    }
+
+    /**
+     * Returns the field of the given column, or {@literal null} if it has none.
+     */
+    static String getField(DataTablesInput.Column column) {
+        if (hasText(column.getName())) {
+            return column.getName();
+        }
+        String data = column.getData();
+        return hasText(data) && !isIndex(data) ? data : null;
+    }
+
+    private static boolean isIndex(String data) {
+        for (int i = 0; i < data.length(); i++) {
+            if (!Character.isDigit(data.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Document toFilter(Query query) {
+        return queryMapper.getMappedObject(query.getQueryObject(), entity);
+    }
+
+    Document toSort(Query query) {
+        return queryMapper.getMappedSort(query.getSortObject(), entity);
+    }
+
+    /**
+     * Returns the projection of the fields of the columns. The fields nested in another projected field are left out,
+     * since they are fetched with it (and MongoDB 4.4+ rejects a projection with a path collision).
+     */
+    Document toProjection() {
+        List<String> paths = new ArrayList<>();
+        for (String[] fieldPath : fieldPaths) {
+            if (fieldPath != null) {
+                paths.add(String.join(".", fieldPath));
+            }
+        }
+        Document projection = new Document();
+        for (String path : paths) {
+            if (paths.stream().noneMatch(other -> path.startsWith(other + "."))) {
+                projection.put(path, 1);
+            }
+        }
+        return projection;
+    }
+
+    Object[] toRow(Document document) {
+        Object[] row = new Object[fieldPaths.length];
+        for (int i = 0; i < fieldPaths.length; i++) {
+            if (fieldPaths[i] != null) {
+                row[i] = getValue(document, fieldPaths[i], 0);
+            }
+        }
+        return row;
+    }
+
+    private static Object getValue(Object value, String[] fieldPath, int index) {
+        if (value instanceof List) {
+            List<Object> values = new ArrayList<>();
+            ((List<?>) value).forEach(element -> values.add(getValue(element, fieldPath, index)));
+            return values;
+        } else if (index == fieldPath.length) {
+            return toSimpleValue(value);
+        } else if (value instanceof Map) {
+            return getValue(((Map<?, ?>) value).get(fieldPath[index]), fieldPath, index + 1);
+        }
+        return null;
+    }
+
+    private static Object toSimpleValue(Object value) {
+        if (value instanceof ObjectId) {
+            return ((ObjectId) value).toHexString();
+        } else if (value instanceof Decimal128) {
+            return ((Decimal128) value).bigDecimalValue();
+        }
+        return value;
+    }
+}
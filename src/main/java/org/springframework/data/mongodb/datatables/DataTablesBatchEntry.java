@@ -0,0 +1,42 @@
+package org.springframework.data.mongodb.datatables;
+
+import lombok.Data;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+/**
+ * One of the tables of a {@link DataTablesRepository#findAllBatch(java.util.List, java.util.concurrent.Executor)}
+ * call.
+ */
+@Data
+public final class DataTablesBatchEntry {
+
+    /**
+     * The {@link DataTablesInput} mapped from the Ajax request of the table.
+     */
+    @NotNull
+    @Valid
+    private DataTablesInput input;
+
+    /**
+     * An additional {@link Criteria} to apply to the query (with an "AND" clause).
+     */
+    private Criteria additionalCriteria;
+
+    /**
+     * A pre-filtering {@link Criteria} to apply to the query (with an "AND" clause).
+     */
+    private Criteria preFilteringCriteria;
+
+    public DataTablesBatchEntry(@NotNull DataTablesInput input) {
+        this(input, null, null);
+    }
+
+    public DataTablesBatchEntry(@NotNull DataTablesInput input, Criteria additionalCriteria, Criteria preFilteringCriteria) {
+        this.input = input;
+        this.additionalCriteria = additionalCriteria;
+        this.preFilteringCriteria = preFilteringCriteria;
+    }
+}
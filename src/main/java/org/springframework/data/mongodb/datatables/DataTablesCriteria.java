@@ -1,10 +1,16 @@
 package org.springframework.data.mongodb.datatables;
 
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 import static java.util.stream.Collectors.toList;
 import static org.springframework.data.domain.Sort.by;
@@ -14,14 +20,34 @@ import static org.springframework.util.StringUtils.hasText;
 
 final class DataTablesCriteria {
 
+    private static final Pattern REGEX_METACHARACTERS = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
     private final DataTablesInput input;
     private final Criteria additionalCriteria;
     private final Criteria preFilteringCriteria;
+    private final DataTablesSearchIndex searchIndex;
+    private final Function<DataTablesInput.Column, String> fields;
 
     DataTablesCriteria(DataTablesInput input, Criteria additionalCriteria, Criteria preFilteringCriteria) {
+        this(input, additionalCriteria, preFilteringCriteria, null);
+    }
+
+    DataTablesCriteria(DataTablesInput input, Criteria additionalCriteria, Criteria preFilteringCriteria,
+                       DataTablesSearchIndex searchIndex) {
+        this(input, additionalCriteria, preFilteringCriteria, searchIndex, DataTablesInput.Column::getData);
+    }
+
+    /**
+     * @param fields the field of each column (for example {@link DataTablesArrays#getField}), the columns without a
+     *               field are neither searched nor sorted.
+     */
+    DataTablesCriteria(DataTablesInput input, Criteria additionalCriteria, Criteria preFilteringCriteria,
+                       DataTablesSearchIndex searchIndex, Function<DataTablesInput.Column, String> fields) {
         this.input = input;
         this.additionalCriteria = additionalCriteria;
         this.preFilteringCriteria = preFilteringCriteria;
+        this.searchIndex = searchIndex;
+        this.fields = fields;
     }
 
     Query toQuery() {
@@ -30,47 +56,98 @@ final class DataTablesCriteria {
         return query;
     }
 
+    /**
+     * Returns the query matching the filtered rows, with the clauses merged and ordered by
+     * {@link DataTablesQueryRewriter}.
+     */
     Query toCountQuery() {
-        Query query = new Query();
+        return new BasicQuery(DataTablesQueryRewriter.rewrite(toCriteria()));
+    }
 
-        addGlobalCriteria(query, input);
-        input.getColumns().forEach(column -> this.addColumnCriteria(query, column));
+    /**
+     * Returns the individual clauses of the query (global search, column searches, additional and pre-filtering
+     * criteria), in the order they are added to the query.
+     */
+    List<Criteria> toCriteria() {
+        List<Criteria> criteria = new ArrayList<>();
+
+        addGlobalCriteria(criteria, input);
+        input.getColumns().forEach(column -> this.addColumnCriteria(criteria, column));
 
         if (additionalCriteria != null) {
-            query.addCriteria(additionalCriteria);
+            criteria.add(additionalCriteria);
         }
         if (preFilteringCriteria != null) {
-            query.addCriteria(preFilteringCriteria);
+            criteria.add(preFilteringCriteria);
         }
 
-        return query;
+        return criteria;
     }
 
-    private void addGlobalCriteria(Query query, DataTablesInput input) {
+    Sort toSort() {
+        if (isEmpty(input.getOrder())) return Sort.unsorted();
+
+        List<Sort.Order> orders = input.getOrder().stream()
+                .filter(order -> isOrderable(input, order))
+                .map(order -> toOrder(input, order)).collect(toList());
+        return by(orders);
+    }
+
+    private void addGlobalCriteria(List<Criteria> criteria, DataTablesInput input) {
         if (!hasText(input.getSearch().getValue())) return;
 
         Criteria[] criteriaArray = input.getColumns().stream()
-                .filter(DataTablesInput.Column::isSearchable)
+                .filter(this::isSearchable)
                 .map(column -> createCriteria(column, input.getSearch()))
                 .toArray(Criteria[]::new);
 
+        addSearchTokensCriteria(criteria, input);
+
         if (criteriaArray.length == 1) {
-            query.addCriteria(criteriaArray[0]);
+            criteria.add(criteriaArray[0]);
         } else if (criteriaArray.length >= 2) {
-            query.addCriteria(new Criteria().orOperator(criteriaArray));
+            criteria.add(new Criteria().orOperator(criteriaArray));
+        }
+    }
+
+    /**
+     * Adds an indexable {@code $all} clause on the search tokens, when all the searchable columns are indexed. The
+     * regular expressions are kept, since the n-grams of the search value may come from different words.
+     * <p>
+     * The clause is skipped when the search value contains characters with a special meaning in a regular expression
+     * (like {@code a|b} or {@code ab?c}), since the value is sent as is in the regular expressions, and may thus match
+     * documents not containing its n-grams.
+     */
+    private void addSearchTokensCriteria(List<Criteria> criteria, DataTablesInput input) {
+        if (searchIndex == null || !searchIndex.enabled() || input.getSearch().isRegex()) return;
+
+        String searchValue = input.getSearch().getValue().trim();
+        if (REGEX_METACHARACTERS.matcher(searchValue).find()) return;
+
+        List<String> indexedFields = Arrays.asList(searchIndex.fields());
+        List<String> searchableFields = input.getColumns().stream()
+                .filter(this::isSearchable)
+                .map(fields)
+                .collect(toList());
+        boolean isIndexed = !searchableFields.isEmpty() && indexedFields.containsAll(searchableFields);
+        if (!isIndexed) return;
+
+        Set<String> tokens = SearchTokenizer.tokenize(searchValue, searchIndex.gramSize());
+        if (!tokens.isEmpty()) {
+            criteria.add(where(searchIndex.tokenField()).all(tokens));
         }
     }
 
-    private void addColumnCriteria(Query query, DataTablesInput.Column column) {
-        if (column.isSearchable() && hasText(column.getSearch().getValue())) {
-            query.addCriteria(createColumnCriteria(column));
+    private void addColumnCriteria(List<Criteria> criteria, DataTablesInput.Column column) {
+        if (isSearchable(column) && hasText(column.getSearch().getValue())) {
+            criteria.add(createColumnCriteria(column));
         }
     }
 
     private Criteria createColumnCriteria(DataTablesInput.Column column) {
         String searchValue = column.getSearch().getValue();
         if ("true".equalsIgnoreCase(searchValue) || "false".equalsIgnoreCase(searchValue)) {
-            return where(column.getData()).is(Boolean.valueOf(searchValue));
+            return where(fields.apply(column)).is(Boolean.valueOf(searchValue));
         } else {
             return createCriteria(column, column.getSearch());
         }
@@ -79,33 +156,36 @@ final class DataTablesCriteria {
     private Criteria createCriteria(DataTablesInput.Column column, DataTablesInput.Search search) {
         String searchValue = search.getValue();
         if (search.isRegex()) {
-            return where(column.getData()).regex(searchValue);
+            return where(fields.apply(column)).regex(searchValue);
         } else {
-            return where(column.getData()).regex(searchValue.trim(), "i");
+            return where(fields.apply(column)).regex(searchValue.trim(), "i");
         }
     }
 
+    private boolean isSearchable(DataTablesInput.Column column) {
+        return column.isSearchable() && hasText(fields.apply(column));
+    }
+
     private void addSort(Query query, DataTablesInput input) {
         query.skip(input.getStart());
         query.limit(input.getLength());
 
         if (isEmpty(input.getOrder())) return;
 
-        List<Sort.Order> orders = input.getOrder().stream()
-                .filter(order -> isOrderable(input, order))
-                .map(order -> toOrder(input, order)).collect(toList());
-        query.with(by(orders));
+        query.with(toSort());
     }
 
     private boolean isOrderable(DataTablesInput input, DataTablesInput.Order order) {
         boolean isWithinBounds = order.getColumn() < input.getColumns().size();
-        return isWithinBounds && input.getColumns().get(order.getColumn()).isOrderable();
+        if (!isWithinBounds) return false;
+        DataTablesInput.Column column = input.getColumns().get(order.getColumn());
+        return column.isOrderable() && hasText(fields.apply(column));
     }
 
     private Sort.Order toOrder(DataTablesInput input, DataTablesInput.Order order) {
         return new Sort.Order(
                 order.getDir() == DataTablesInput.Order.Direction.asc ? Sort.Direction.ASC : Sort.Direction.DESC,
-                input.getColumns().get(order.getColumn()).getData()
+                fields.apply(input.getColumns().get(order.getColumn()))
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,458 @@
+package org.springframework.data.mongodb.datatables;
+
+import com.mongodb.MongoBulkWriteException;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mapping.MappingException;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
+import org.springframework.data.mapping.PersistentPropertyPath;
+import org.springframework.data.mapping.model.ConvertingPropertyAccessor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.util.ClassUtils;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Applies a {@link DataTablesEditorInput} as a single bulk write: one insert per created row, one {@code $set} update
+ * of the submitted fields per edited row, and one delete per removed row.
+ * <p>
+ * The submitted values are converted to the types of the properties of the entity (the dates are parsed in the ISO
+ * format). If any value cannot be converted, nothing is written and the errors are returned as field errors.
+ * <p>
+ * The created rows and the updates set the {@code @LastModifiedDate} property of the entity, if any. The created rows
+ * start at version 0, and when the {@code @Version} property is submitted with an edited row, the row is only updated
+ * if its version is unchanged (optimistic locking), and its version is then incremented. When a field of the
+ * {@link DataTablesSearchIndex} of the entity is edited, the search tokens are computed again from the current
+ * documents (read just before the write) and set in the same update.
+ */
+final class DataTablesEditor<T> {
+
+    private static final Object INVALID = new Object();
+    private static final String CONFLICT = "The row has been modified by another user";
+    private static final FormattingConversionService ISO_CONVERSION_SERVICE = new DefaultFormattingConversionService(false);
+
+    static {
+        DateTimeFormatterRegistrar registrar = new DateTimeFormatterRegistrar();
+        registrar.setUseIsoFormat(true);
+        registrar.registerFormatters(ISO_CONVERSION_SERVICE);
+    }
+
+    private final MongoOperations mongoOperations;
+    private final MongoConverter converter;
+    private final Class<T> domainType;
+    private final String collectionName;
+    private final MongoPersistentEntity<?> entity;
+    private final MongoPersistentProperty idProperty;
+    private final MongoPersistentProperty versionProperty;
+    private final MongoPersistentProperty lastModifiedDateProperty;
+    private final DataTablesSearchIndex searchIndex;
+
+    DataTablesEditor(MongoOperations mongoOperations, Class<T> domainType, String collectionName) {
+        this.mongoOperations = mongoOperations;
+        this.converter = mongoOperations.getConverter();
+        this.domainType = domainType;
+        this.collectionName = collectionName;
+        this.entity = converter.getMappingContext().getRequiredPersistentEntity(domainType);
+        this.idProperty = entity.getRequiredIdProperty();
+        this.versionProperty = entity.getVersionProperty();
+        this.lastModifiedDateProperty = entity.getPersistentProperty(LastModifiedDate.class);
+        this.searchIndex = AnnotatedElementUtils.findMergedAnnotation(domainType, DataTablesSearchIndex.class);
+    }
+
+    DataTablesEditorOutput<T> apply(DataTablesEditorInput input, BulkOperations.BulkMode bulkMode) {
+        DataTablesEditorOutput<T> output = new DataTablesEditorOutput<>();
+        BulkOperations bulkOperations = mongoOperations.bulkOps(bulkMode, domainType, collectionName);
+        List<String> rowIds = new ArrayList<>();
+        List<Object> ids = new ArrayList<>();
+        List<DataTablesEditorOutput.FieldError> fieldErrors = new ArrayList<>();
+        List<Edit> edits = new ArrayList<>();
+
+        input.getData().forEach((rowId, fields) -> {
+            switch (input.getAction()) {
+                case create:
+                    T created = toEntity(rowId, fields, fieldErrors);
+                    if (created != null) {
+                        bulkOperations.insert(created);
+                        rowIds.add(rowId);
+                        ids.add(entity.getIdentifierAccessor(created).getIdentifier());
+                    }
+                    break;
+                case edit:
+                    Object id = toId(rowId, fieldErrors);
+                    Edit edit = toEdit(rowId, id, fields, fieldErrors);
+                    if (id != null && !edit.update.getUpdateObject().isEmpty()) {
+                        edits.add(edit);
+                    }
+                    ids.add(id);
+                    break;
+                case remove:
+                    Object removedId = toId(rowId, fieldErrors);
+                    if (removedId != null) {
+                        bulkOperations.remove(query(where(idProperty.getName()).is(removedId)));
+                        rowIds.add(rowId);
+                    }
+                    break;
+            }
+        });
+
+        if (!fieldErrors.isEmpty()) {
+            output.setFieldErrors(fieldErrors);
+            return output;
+        }
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        Map<Object, Edit> indexedEdits = new HashMap<>();
+        List<Edit> versionedEdits = new ArrayList<>();
+        Map<Object, Object> versions = findVersions(edits);
+        for (Edit edit : edits) {
+            Query rowQuery = query(where(idProperty.getName()).is(edit.id));
+            if (edit.version != null) {
+                if (!isNextVersion(versions.get(edit.id), edit.version, 0)) {
+                    errors.put(edit.rowId, CONFLICT);
+                    continue;
+                }
+                rowQuery.addCriteria(where(versionProperty.getName()).is(edit.version));
+                edit.update.inc(versionProperty.getName(), 1);
+                versionedEdits.add(edit);
+            }
+            setAuditingProperties(edit.update);
+            if (isIndexed(edit.changes)) {
+                indexedEdits.put(edit.id, edit);
+            }
+            bulkOperations.updateOne(rowQuery, edit.update);
+            rowIds.add(edit.rowId);
+        }
+
+        if (!rowIds.isEmpty()) {
+            setSearchTokens(indexedEdits);
+            try {
+                bulkOperations.execute();
+            } catch (RuntimeException e) {
+                Map<Integer, String> writeErrors = getWriteErrors(e);
+                writeErrors.forEach((index, message) -> errors.put(rowIds.get(index), message));
+                excludeUnwrittenRows(input.getAction(), bulkMode, writeErrors.keySet(), ids);
+            }
+        }
+
+        if (input.getAction() != DataTablesEditorInput.Action.remove) {
+            List<T> rows = findAll(ids);
+            addConflicts(versionedEdits, rows, errors);
+            output.setData(rows);
+        }
+        if (!errors.isEmpty()) {
+            output.setError(errors.entrySet().stream()
+                    .map(error -> error.getKey() + ": " + error.getValue())
+                    .collect(Collectors.joining("\n")));
+        }
+        return output;
+    }
+
+    /**
+     * Returns the current versions of the rows of the given versioned edits, by id.
+     */
+    private Map<Object, Object> findVersions(List<Edit> edits) {
+        List<Object> versionedIds = edits.stream().filter(edit -> edit.version != null).map(edit -> edit.id)
+                .collect(Collectors.toList());
+        Map<Object, Object> versions = new HashMap<>();
+        if (versionedIds.isEmpty()) return versions;
+
+        Query versionQuery = query(where(idProperty.getFieldName()).in(versionedIds));
+        versionQuery.fields().include(versionProperty.getFieldName());
+        mongoOperations.find(versionQuery, Document.class, collectionName).forEach(document -> versions.put(
+                converter.getConversionService().convert(document.get("_id"), ClassUtils.resolvePrimitiveIfNecessary(idProperty.getType())),
+                document.get(versionProperty.getFieldName())));
+        return versions;
+    }
+
+    /**
+     * Adds an error for each versioned edit whose row does not have the version following the submitted one after the
+     * write, because the row has been modified (or removed) between the check of its version and the write. Note that
+     * the update is never applied on a modified row, but a single concurrent write in this interval cannot be told
+     * apart from the edit.
+     */
+    private void addConflicts(List<Edit> versionedEdits, List<T> rows, Map<String, String> errors) {
+        if (versionedEdits.isEmpty()) return;
+
+        Map<Object, Object> versions = new HashMap<>();
+        rows.forEach(row -> versions.put(entity.getIdentifierAccessor(row).getIdentifier(),
+                entity.getPropertyAccessor(row).getProperty(versionProperty)));
+        versionedEdits.forEach(edit -> {
+            if (!errors.containsKey(edit.rowId) && !isNextVersion(versions.get(edit.id), edit.version, 1)) {
+                errors.put(edit.rowId, CONFLICT);
+            }
+        });
+    }
+
+    private static boolean isNextVersion(Object version, Object submittedVersion, int increment) {
+        return version instanceof Number
+                && ((Number) version).longValue() == ((Number) submittedVersion).longValue() + increment;
+    }
+
+    /**
+     * Returns the messages of the write errors of the given exception, by index of the write, or rethrows it if it is
+     * not a bulk write error. Depending on the error codes, the bulk write errors are translated either to a
+     * {@link BulkOperationException} or to another {@link org.springframework.dao.DataAccessException} caused by a
+     * {@link MongoBulkWriteException}.
+     */
+    private static Map<Integer, String> getWriteErrors(RuntimeException e) {
+        Map<Integer, String> writeErrors = new TreeMap<>();
+        if (e instanceof BulkOperationException) {
+            ((BulkOperationException) e).getErrors().forEach(error -> writeErrors.put(error.getIndex(), error.getMessage()));
+        } else if (e.getCause() instanceof MongoBulkWriteException) {
+            ((MongoBulkWriteException) e.getCause()).getWriteErrors().forEach(error -> writeErrors.put(error.getIndex(), error.getMessage()));
+        } else {
+            throw e;
+        }
+        return writeErrors;
+    }
+
+    /**
+     * Removes the ids of the created rows that were not written, either because they failed or, in ordered mode,
+     * because they came after the first failure.
+     */
+    private static void excludeUnwrittenRows(DataTablesEditorInput.Action action, BulkOperations.BulkMode bulkMode,
+                                             Set<Integer> failedIndexes, List<Object> ids) {
+        if (action != DataTablesEditorInput.Action.create) return;
+
+        if (bulkMode == BulkOperations.BulkMode.ORDERED) {
+            int firstFailedIndex = failedIndexes.stream().mapToInt(Integer::intValue).min().orElse(ids.size());
+            ids.subList(firstFailedIndex, ids.size()).clear();
+        } else {
+            failedIndexes.stream().sorted(Comparator.reverseOrder()).forEach(index -> ids.remove((int) index));
+        }
+    }
+
+    private List<T> findAll(List<Object> ids) {
+        if (ids.isEmpty()) return new ArrayList<>();
+
+        Map<Object, T> entitiesById = new HashMap<>();
+        mongoOperations.find(query(where(idProperty.getName()).in(ids)), domainType, collectionName)
+                .forEach(found -> entitiesById.put(entity.getIdentifierAccessor(found).getIdentifier(), found));
+        return ids.stream().map(entitiesById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns whether the given changes (by dotted path of the fields of the document) modify a field of the search
+     * index.
+     */
+    private boolean isIndexed(Document changes) {
+        if (searchIndex == null) return false;
+
+        for (String field : searchIndex.fields()) {
+            for (String changedField : changes.keySet()) {
+                if (field.equals(changedField) || field.startsWith(changedField + ".") || changedField.startsWith(field + ".")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the search tokens of the given edits, computed from the current documents with the changes applied.
+     */
+    private void setSearchTokens(Map<Object, Edit> indexedEdits) {
+        if (indexedEdits.isEmpty()) return;
+
+        mongoOperations.find(query(where(idProperty.getName()).in(indexedEdits.keySet())), domainType, collectionName)
+                .forEach(found -> {
+                    Edit edit = indexedEdits.get(entity.getIdentifierAccessor(found).getIdentifier());
+                    if (edit == null) return;
+
+                    Document document = new Document();
+                    converter.write(found, document);
+                    edit.changes.forEach((dotPath, value) -> put(document, dotPath, value));
+                    edit.update.set(searchIndex.tokenField(), SearchTokenizer.tokenize(document, searchIndex));
+                });
+    }
+
+    private void setAuditingProperties(Update update) {
+        if (lastModifiedDateProperty != null) {
+            update.set(lastModifiedDateProperty.getName(), getCurrentDate(lastModifiedDateProperty.getType()));
+        }
+    }
+
+    private Object getCurrentDate(Class<?> type) {
+        Date now = new Date();
+        if (type.isInstance(now)) {
+            return now;
+        } else if (Long.class.equals(ClassUtils.resolvePrimitiveIfNecessary(type))) {
+            return now.getTime();
+        }
+        return converter.getConversionService().convert(now, type);
+    }
+
+    private T toEntity(String rowId, Map<String, Object> fields, List<DataTablesEditorOutput.FieldError> fieldErrors) {
+        Document document = new Document();
+        boolean isValid = true;
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            PersistentPropertyPath<MongoPersistentProperty> path = getPath(rowId, field.getKey(), fieldErrors);
+            Object value = path == null ? INVALID : convert(rowId, field.getKey(), field.getValue(), path, fieldErrors);
+            if (value == INVALID) {
+                isValid = false;
+            } else {
+                put(document, path.toDotPath(MongoPersistentProperty::getFieldName), converter.convertToMongoType(value));
+            }
+        }
+        if (!isValid) return null;
+
+        T created = converter.read(domainType, document);
+        PersistentPropertyAccessor<T> accessor = new ConvertingPropertyAccessor<>(entity.getPropertyAccessor(created),
+                converter.getConversionService());
+        if (accessor.getProperty(idProperty) == null && isGeneratedId()) {
+            accessor.setProperty(idProperty, new ObjectId());
+        }
+        // like MongoTemplate#insert, which the bulk inserts do not go through
+        if (versionProperty != null && accessor.getProperty(versionProperty) == null) {
+            accessor.setProperty(versionProperty, 0);
+        }
+        if (lastModifiedDateProperty != null) {
+            accessor.setProperty(lastModifiedDateProperty, getCurrentDate(lastModifiedDateProperty.getType()));
+        }
+        return accessor.getBean();
+    }
+
+    /**
+     * Returns the {@code $set} update of the given fields, with their values converted to the types stored in MongoDB
+     * as changes, and the submitted version if any. The identifier is only accepted if it is unchanged.
+     */
+    private Edit toEdit(String rowId, Object id, Map<String, Object> fields,
+                        List<DataTablesEditorOutput.FieldError> fieldErrors) {
+        Edit edit = new Edit(rowId, id);
+        fields.forEach((name, submittedValue) -> {
+            PersistentPropertyPath<MongoPersistentProperty> path = getPath(rowId, name, fieldErrors);
+            Object value = path == null ? INVALID : convert(rowId, name, submittedValue, path, fieldErrors);
+            if (value == INVALID) return;
+
+            MongoPersistentProperty property = path.getLeafProperty();
+            if (property.isIdProperty()) {
+                if (!Objects.equals(value, id)) {
+                    fieldErrors.add(new DataTablesEditorOutput.FieldError(name, "The identifier cannot be modified", rowId));
+                }
+            } else if (property.isVersionProperty()) {
+                if (value == null) {
+                    fieldErrors.add(new DataTablesEditorOutput.FieldError(name, "This field is required", rowId));
+                }
+                edit.version = value;
+            } else {
+                edit.update.set(path.toDotPath(), value);
+                edit.changes.put(path.toDotPath(MongoPersistentProperty::getFieldName), converter.convertToMongoType(value));
+            }
+        });
+        return edit;
+    }
+
+    private Object toId(String rowId, List<DataTablesEditorOutput.FieldError> fieldErrors) {
+        try {
+            return converter.getConversionService().convert(rowId, ClassUtils.resolvePrimitiveIfNecessary(idProperty.getType()));
+        } catch (RuntimeException e) {
+            fieldErrors.add(new DataTablesEditorOutput.FieldError(idProperty.getName(), "Invalid identifier", rowId));
+            return null;
+        }
+    }
+
+    /**
+     * Returns the path of the given field, or {@literal null} (with a field error) if it does not exist or goes
+     * through a collection, which cannot be updated with the dotted notation.
+     */
+    private PersistentPropertyPath<MongoPersistentProperty> getPath(String rowId, String name,
+                                                                    List<DataTablesEditorOutput.FieldError> fieldErrors) {
+        try {
+            PersistentPropertyPath<MongoPersistentProperty> path =
+                    converter.getMappingContext().getPersistentPropertyPath(name, domainType);
+            for (MongoPersistentProperty property : path) {
+                if (property != path.getLeafProperty() && (property.isCollectionLike() || property.isMap())) {
+                    fieldErrors.add(new DataTablesEditorOutput.FieldError(name, "This field cannot be edited", rowId));
+                    return null;
+                }
+            }
+            return path;
+        } catch (MappingException e) {
+            fieldErrors.add(new DataTablesEditorOutput.FieldError(name, "Unknown field", rowId));
+            return null;
+        }
+    }
+
+    private Object convert(String rowId, String name, Object value, PersistentPropertyPath<MongoPersistentProperty> path,
+                           List<DataTablesEditorOutput.FieldError> fieldErrors) {
+        MongoPersistentProperty property = path.getLeafProperty();
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(property.getType());
+        if (value == null || type.isInstance(value) || property.isEntity() || property.isCollectionLike() || property.isMap()) {
+            return value;
+        }
+        if ("".equals(value)) {
+            if (!property.getType().isPrimitive()) return null;
+            fieldErrors.add(new DataTablesEditorOutput.FieldError(name, "This field is required", rowId));
+            return INVALID;
+        }
+
+        ConversionService conversionService = converter.getConversionService().canConvert(value.getClass(), type)
+                ? converter.getConversionService() : ISO_CONVERSION_SERVICE;
+        try {
+            return conversionService.convert(value, type);
+        } catch (RuntimeException e) {
+            fieldErrors.add(new DataTablesEditorOutput.FieldError(name, "Invalid value", rowId));
+            return INVALID;
+        }
+    }
+
+    private boolean isGeneratedId() {
+        Class<?> type = idProperty.getType();
+        return ObjectId.class.equals(type) || String.class.equals(type) || BigInteger.class.equals(type);
+    }
+
+    private static void put(Document document, String dotPath, Object value) {
+        int index = dotPath.indexOf('.');
+        if (index < 0) {
+            document.put(dotPath, value);
+        } else {
+            Object nested = document.get(dotPath.substring(0, index));
+            if (!(nested instanceof Document)) {
+                nested = new Document();
+                document.put(dotPath.substring(0, index), nested);
+            }
+            put((Document) nested, dotPath.substring(index + 1), value);
+        }
+    }
+
+    private static final class Edit {
+
+        private final String rowId;
+        private final Object id;
+        private final Document changes = new Document();
+        private final Update update = new Update();
+        private Object version;
+
+        Edit(String rowId, Object id) {
+            this.rowId = rowId;
+            this.id = id;
+        }
+    }
+}
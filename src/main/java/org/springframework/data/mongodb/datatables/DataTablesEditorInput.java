@@ -0,0 +1,36 @@
+package org.springframework.data.mongodb.datatables;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+
+/**
+ * The request sent by DataTables Editor when creating, editing or removing rows.
+ *
+ * @see <a href="https://editor.datatables.net/manual/server">https://editor.datatables.net/manual/server</a>
+ */
+@Data
+public class DataTablesEditorInput {
+
+    /**
+     * The action to apply to the rows.
+     */
+    @NotNull
+    private Action action;
+
+    /**
+     * The submitted rows, by row id (an arbitrary key when creating rows), each with the values of its fields, by
+     * field name. Nested fields may be written with the dotted notation, like {@code "address.city"}.
+     */
+    @NotEmpty
+    private Map<String, Map<String, Object>> data;
+
+    public enum Action {
+        create,
+        edit,
+        remove
+    }
+
+}
@@ -0,0 +1,63 @@
+package org.springframework.data.mongodb.datatables;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonView;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The response to a {@link DataTablesEditorInput}.
+ *
+ * @see <a href="https://editor.datatables.net/manual/server">https://editor.datatables.net/manual/server</a>
+ */
+@Data
+public final class DataTablesEditorOutput<T> {
+
+    /**
+     * The created or edited rows, as stored in the database. Empty when rows were removed.
+     */
+    @JsonView(DataTablesOutput.View.class)
+    private List<T> data = Collections.emptyList();
+
+    /**
+     * Optional: a general error message (for example a write error), displayed by Editor at the bottom of the form.
+     * Not included if there is no error.
+     */
+    @JsonView(DataTablesOutput.View.class)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    /**
+     * Optional: the errors of the submitted fields, displayed by Editor next to each field. Not included if there is
+     * no error.
+     */
+    @JsonView(DataTablesOutput.View.class)
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<FieldError> fieldErrors = Collections.emptyList();
+
+    @Data
+    public static final class FieldError {
+
+        /**
+         * The name of the field in error.
+         */
+        @JsonView(DataTablesOutput.View.class)
+        private final String name;
+
+        /**
+         * The error message of the field.
+         */
+        @JsonView(DataTablesOutput.View.class)
+        private final String status;
+
+        /**
+         * The id of the row in error, as submitted (the index of the row when creating rows).
+         */
+        @JsonView(DataTablesOutput.View.class)
+        private final String id;
+
+    }
+
+}
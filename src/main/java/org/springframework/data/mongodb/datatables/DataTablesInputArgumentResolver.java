@@ -0,0 +1,412 @@
+package org.springframework.data.mongodb.datatables;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the {@link DataTablesInput} arguments of the controller methods, without going through the
+ * {@link org.springframework.web.bind.WebDataBinder}.
+ * <p>
+ * The query parameters can be sent either in the native format of DataTables (like {@code columns[0][data]}), so
+ * {@code jquery.spring-friendly.js} is not needed anymore, or in the format produced by that script (like
+ * {@code columns[0].data}). A request with an {@code application/json} content type is read from its body instead.
+ * <p>
+ * The bounds of the parameters are validated, and a {@link ServletRequestBindingException} (resulting in a
+ * "400 Bad Request" response) is thrown if they are invalid.
+ * <p>
+ * It must be registered with {@code WebMvcConfigurer#addArgumentResolvers}.
+ */
+public class DataTablesInputArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final String[] DATA = {"data"};
+    private static final String[] NAME = {"name"};
+    private static final String[] SEARCHABLE = {"searchable"};
+    private static final String[] ORDERABLE = {"orderable"};
+    private static final String[] SEARCH_VALUE = {"search", "value"};
+    private static final String[] SEARCH_REGEX = {"search", "regex"};
+    private static final String[] VALUE = {"value"};
+    private static final String[] REGEX = {"regex"};
+    private static final String[] COLUMN = {"column"};
+    private static final String[] DIR = {"dir"};
+
+    private int maxColumns = 500;
+    private int maxLength = -1;
+
+    /**
+     * Sets the maximum number of columns, and of sorted columns (500 by default).
+     */
+    public void setMaxColumns(int maxColumns) {
+        this.maxColumns = maxColumns;
+    }
+
+    /**
+     * Sets the maximum number of records per draw. By default, there is no limit and {@code length=-1} (all the
+     * records) is allowed.
+     */
+    public void setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return DataTablesInput.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public DataTablesInput resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                           NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+            throws ServletRequestBindingException {
+        DataTablesInput input = isJson(webRequest) ? readBody(webRequest) : readParameters(webRequest.getParameterMap());
+        validate(input);
+        return input;
+    }
+
+    private static boolean isJson(NativeWebRequest webRequest) throws ServletRequestBindingException {
+        String contentType = webRequest.getHeader(HttpHeaders.CONTENT_TYPE);
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            throw new ServletRequestBindingException("Invalid Content-Type header: " + e.getMessage(), e);
+        }
+    }
+
+    private static DataTablesInput newInput() {
+        DataTablesInput input = new DataTablesInput();
+        input.setSearch(new DataTablesInput.Search("", false));
+        input.setColumns(new ArrayList<>());
+        input.setOrder(new ArrayList<>());
+        return input;
+    }
+
+    private static DataTablesInput.Column newColumn() {
+        DataTablesInput.Column column = new DataTablesInput.Column();
+        column.setSearch(new DataTablesInput.Search("", false));
+        return column;
+    }
+
+    private DataTablesInput readParameters(Map<String, String[]> parameters) throws ServletRequestBindingException {
+        DataTablesInput input = newInput();
+
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            String name = parameter.getKey();
+            String value = parameter.getValue().length == 0 ? "" : parameter.getValue()[0];
+
+            if (name.startsWith("columns[")) {
+                int end = indexEnd(name, 7);
+                DataTablesInput.Column column = getOrCreate(input.getColumns(), index(name, 7, end), DataTablesInputArgumentResolver::newColumn);
+                readColumnParameter(column, name, end + 1, value);
+            } else if (name.startsWith("order[")) {
+                int end = indexEnd(name, 5);
+                DataTablesInput.Order order = getOrCreate(input.getOrder(), index(name, 5, end), DataTablesInput.Order::new);
+                readOrderParameter(order, name, end + 1, value);
+            } else if (name.startsWith("search")) {
+                if (isPath(name, 6, VALUE)) {
+                    input.getSearch().setValue(value);
+                } else if (isPath(name, 6, REGEX)) {
+                    input.getSearch().setRegex(Boolean.parseBoolean(value));
+                }
+            } else if ("draw".equals(name)) {
+                input.setDraw(parseInt(name, value));
+            } else if ("start".equals(name)) {
+                input.setStart(parseInt(name, value));
+            } else if ("length".equals(name)) {
+                input.setLength(parseInt(name, value));
+            }
+        }
+
+        return input;
+    }
+
+    private static void readColumnParameter(DataTablesInput.Column column, String name, int offset, String value) {
+        if (isPath(name, offset, DATA)) {
+            column.setData(value);
+        } else if (isPath(name, offset, NAME)) {
+            column.setName(value);
+        } else if (isPath(name, offset, SEARCHABLE)) {
+            column.setSearchable(Boolean.parseBoolean(value));
+        } else if (isPath(name, offset, ORDERABLE)) {
+            column.setOrderable(Boolean.parseBoolean(value));
+        } else if (isPath(name, offset, SEARCH_VALUE)) {
+            column.getSearch().setValue(value);
+        } else if (isPath(name, offset, SEARCH_REGEX)) {
+            column.getSearch().setRegex(Boolean.parseBoolean(value));
+        }
+    }
+
+    private static void readOrderParameter(DataTablesInput.Order order, String name, int offset, String value)
+            throws ServletRequestBindingException {
+        if (isPath(name, offset, COLUMN)) {
+            order.setColumn(parseInt(name, value));
+        } else if (isPath(name, offset, DIR)) {
+            order.setDir(parseDirection(name, value));
+        }
+    }
+
+    /**
+     * Returns the position of the closing bracket of the index starting at the given offset (like "[12]").
+     */
+    private static int indexEnd(String name, int offset) throws ServletRequestBindingException {
+        int end = name.indexOf(']', offset);
+        if (name.length() <= offset || name.charAt(offset) != '[' || end < offset + 2) {
+            throw invalidParameter(name);
+        }
+        return end;
+    }
+
+    private int index(String name, int offset, int end) throws ServletRequestBindingException {
+        int index = 0;
+        for (int i = offset + 1; i < end; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalidParameter(name);
+            }
+            index = index * 10 + (c - '0');
+            if (index >= maxColumns) {
+                throw invalidParameter(name);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns whether the name ends, from the given offset, with the given path, either in the bracket ("[a][b]") or
+     * in the dot (".a.b") notation.
+     */
+    private static boolean isPath(String name, int offset, String[] path) {
+        int position = offset;
+        for (String segment : path) {
+            if (position >= name.length()) {
+                return false;
+            }
+            char c = name.charAt(position);
+            if (c == '[') {
+                int end = position + 1 + segment.length();
+                if (!name.startsWith(segment, position + 1) || end >= name.length() || name.charAt(end) != ']') {
+                    return false;
+                }
+                position = end + 1;
+            } else if (c == '.') {
+                if (!name.startsWith(segment, position + 1)) {
+                    return false;
+                }
+                position += segment.length() + 1;
+            } else {
+                return false;
+            }
+        }
+        return position == name.length();
+    }
+
+    private static <E> E getOrCreate(List<E> list, int index, Supplier<E> supplier) {
+        while (list.size() <= index) {
+            list.add(null);
+        }
+        E element = list.get(index);
+        if (element == null) {
+            element = supplier.get();
+            list.set(index, element);
+        }
+        return element;
+    }
+
+    private DataTablesInput readBody(NativeWebRequest webRequest) throws ServletRequestBindingException {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        if (request == null) {
+            throw new ServletRequestBindingException("Unable to read the DataTables parameters from the request body");
+        }
+
+        try (InputStream body = request.getInputStream(); JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return readJson(parser);
+        } catch (IOException e) {
+            throw new ServletRequestBindingException("Invalid DataTables request body: " + e.getMessage(), e);
+        }
+    }
+
+    private DataTablesInput readJson(JsonParser parser) throws IOException, ServletRequestBindingException {
+        DataTablesInput input = newInput();
+
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "draw":
+                    input.setDraw(readInt(parser, token));
+                    break;
+                case "start":
+                    input.setStart(readInt(parser, token));
+                    break;
+                case "length":
+                    input.setLength(readInt(parser, token));
+                    break;
+                case "search":
+                    readJsonSearch(parser, token, input.getSearch());
+                    break;
+                case "columns":
+                    expect(parser, token, JsonToken.START_ARRAY);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (input.getColumns().size() == maxColumns) {
+                            throw invalidParameter(field);
+                        }
+                        input.getColumns().add(readJsonColumn(parser));
+                    }
+                    break;
+                case "order":
+                    expect(parser, token, JsonToken.START_ARRAY);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (input.getOrder().size() == maxColumns) {
+                            throw invalidParameter(field);
+                        }
+                        input.getOrder().add(readJsonOrder(parser));
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        return input;
+    }
+
+    private static DataTablesInput.Column readJsonColumn(JsonParser parser) throws IOException, ServletRequestBindingException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        DataTablesInput.Column column = newColumn();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "data":
+                    column.setData(parser.getValueAsString(""));
+                    break;
+                case "name":
+                    column.setName(parser.getValueAsString(""));
+                    break;
+                case "searchable":
+                    column.setSearchable(parser.getValueAsBoolean());
+                    break;
+                case "orderable":
+                    column.setOrderable(parser.getValueAsBoolean());
+                    break;
+                case "search":
+                    readJsonSearch(parser, token, column.getSearch());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return column;
+    }
+
+    private static void readJsonSearch(JsonParser parser, JsonToken token, DataTablesInput.Search search)
+            throws IOException, ServletRequestBindingException {
+        expect(parser, token, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("value".equals(field)) {
+                search.setValue(parser.getValueAsString(""));
+            } else if ("regex".equals(field)) {
+                search.setRegex(parser.getValueAsBoolean());
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static DataTablesInput.Order readJsonOrder(JsonParser parser) throws IOException, ServletRequestBindingException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+        DataTablesInput.Order order = new DataTablesInput.Order();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("column".equals(field)) {
+                order.setColumn(readInt(parser, token));
+            } else if ("dir".equals(field)) {
+                order.setDir(parseDirection(field, parser.getValueAsString()));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return order;
+    }
+
+    private static int readInt(JsonParser parser, JsonToken token) throws IOException, ServletRequestBindingException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        return parseInt(parser.getCurrentName(), parser.getValueAsString());
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected)
+            throws IOException, ServletRequestBindingException {
+        if (actual != expected) {
+            String name = parser.getCurrentName();
+            throw invalidParameter(name == null ? "body" : name);
+        }
+    }
+
+    private static int parseInt(String name, String value) throws ServletRequestBindingException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw invalidParameter(name);
+        }
+    }
+
+    private static DataTablesInput.Order.Direction parseDirection(String name, String value) throws ServletRequestBindingException {
+        if ("asc".equals(value)) {
+            return DataTablesInput.Order.Direction.asc;
+        } else if ("desc".equals(value)) {
+            return DataTablesInput.Order.Direction.desc;
+        }
+        throw invalidParameter(name);
+    }
+
+    private void validate(DataTablesInput input) throws ServletRequestBindingException {
+        if (input.getDraw() < 0) throw invalidParameter("draw");
+        if (input.getStart() < 0) throw invalidParameter("start");
+        if (input.getLength() < -1) throw invalidParameter("length");
+        if (maxLength > 0 && (input.getLength() == -1 || input.getLength() > maxLength)) throw invalidParameter("length");
+
+        for (int i = 0; i < input.getColumns().size(); i++) {
+            DataTablesInput.Column column = input.getColumns().get(i);
+            if (column == null) throw invalidParameter("columns[" + i + "]");
+            if (!StringUtils.hasText(column.getData())) throw invalidParameter("columns[" + i + "][data]");
+        }
+        for (int i = 0; i < input.getOrder().size(); i++) {
+            DataTablesInput.Order order = input.getOrder().get(i);
+            if (order == null || order.getDir() == null) throw invalidParameter("order[" + i + "]");
+            if (order.getColumn() < 0 || order.getColumn() >= input.getColumns().size()) {
+                throw invalidParameter("order[" + i + "][column]");
+            }
+        }
+    }
+
+    private static ServletRequestBindingException invalidParameter(String name) {
+        return new ServletRequestBindingException("Invalid DataTables parameter: " + name);
+    }
+}
@@ -0,0 +1,145 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * A collection holding the results of an aggregation pipeline, which can be used as the source of a
+ * {@link DataTablesRepository#findAll(DataTablesInput, DataTablesMaterializedView, Class)} call, instead of running
+ * the pipeline on each draw.
+ * <p>
+ * The view is refreshed incrementally with {@link #refresh()} (for example from a {@code @Scheduled} method): only the
+ * documents whose high-water mark field (for example a {@code @LastModifiedDate} field) is greater than or equal to the
+ * one of the previous refresh go through the pipeline, and the results are merged into the collection with a
+ * {@code $merge} stage, based on their {@code _id}. The documents sharing the previous high-water mark are applied
+ * again, so that the ones written after the previous refresh with the same value are not skipped (the merge is
+ * idempotent).
+ * <p>
+ * Note that the deletions in the source collection are not propagated, and that the source documents without the
+ * high-water mark field are never materialized. The documents written with a high-water mark lower than the one of
+ * the previous refresh (for example when their write was committed after the refresh) are only applied by the next
+ * {@link #refresh(Object)} call starting from an earlier value.
+ * <p>
+ * Requires MongoDB 4.2+.
+ */
+public class DataTablesMaterializedView {
+
+    /**
+     * The collection holding the high-water mark and the date of the last refresh of each view.
+     */
+    public static final String STATE_COLLECTION_NAME = "dataTablesMaterializedViews";
+
+    private final MongoOperations mongoOperations;
+    private final Class<?> sourceType;
+    private final List<AggregationOperation> pipeline;
+    private final String collectionName;
+    private final String highWaterMarkField;
+
+    /**
+     * @param mongoOperations    must not be {@literal null}.
+     * @param sourceType         the entity on which the pipeline is applied
+     * @param pipeline           the pipeline, returning documents with the {@code _id} of their source document
+     * @param collectionName     the collection holding the results of the pipeline
+     * @param highWaterMarkField a field of the source documents, updated each time they are modified
+     */
+    public DataTablesMaterializedView(MongoOperations mongoOperations, Class<?> sourceType,
+                                      List<? extends AggregationOperation> pipeline, String collectionName,
+                                      String highWaterMarkField) {
+        this.mongoOperations = mongoOperations;
+        this.sourceType = sourceType;
+        this.pipeline = new ArrayList<>(pipeline);
+        this.collectionName = collectionName;
+        this.highWaterMarkField = highWaterMarkField;
+    }
+
+    public String getCollectionName() {
+        return collectionName;
+    }
+
+    /**
+     * Returns the date of the last refresh of the view, or {@literal null} if it has never been refreshed. The date is
+     * read from the state collection (with a lookup by {@code _id}), so the refreshes of the other instances are seen.
+     */
+    public Date getRefreshedAt() {
+        Document state = findState();
+        return state == null ? null : state.getDate("refreshedAt");
+    }
+
+    /**
+     * Applies the pipeline to the source documents modified since the last refresh, and merges the results into the
+     * collection of the view.
+     */
+    public synchronized void refresh() {
+        Document state = findState();
+        refresh(state == null ? null : state.get("highWaterMark"));
+    }
+
+    /**
+     * Applies the pipeline to the source documents whose high-water mark is greater than or equal to the given one (or
+     * to all the source documents with a high-water mark if {@literal null}), and merges the results into the
+     * collection of the view. This allows to catch up with the documents whose write was committed after a refresh,
+     * for example by periodically refreshing the view from a few minutes before its last high-water mark.
+     *
+     * @param previousHighWaterMark the lower bound (inclusive) of the high-water marks to apply, may be {@literal null}.
+     */
+    public synchronized void refresh(Object previousHighWaterMark) {
+        Document state = findState();
+        Object storedHighWaterMark = state == null ? null : state.get("highWaterMark");
+
+        String sourceCollectionName = mongoOperations.getCollectionName(sourceType);
+        Query latestQuery = new Query().with(Sort.by(Sort.Direction.DESC, highWaterMarkField)).limit(1);
+        latestQuery.fields().include(highWaterMarkField);
+        Document latest = mongoOperations.findOne(latestQuery, Document.class, sourceCollectionName);
+        Object highWaterMark = latest == null ? null : latest.get(highWaterMarkField);
+
+        if (highWaterMark != null) {
+            Criteria window = where(highWaterMarkField).lte(highWaterMark);
+            if (previousHighWaterMark != null) {
+                window = window.gte(previousHighWaterMark);
+            }
+
+            List<AggregationOperation> operations = new ArrayList<>();
+            operations.add(match(window));
+            operations.addAll(pipeline);
+            operations.add(context -> new Document("$merge", new Document("into", collectionName)
+                    .append("on", "_id")
+                    .append("whenMatched", "replace")
+                    .append("whenNotMatched", "insert")));
+
+            List<Document> stages = newAggregation(sourceType, operations).toPipeline(
+                    new TypeBasedAggregationOperationContext(sourceType, mongoOperations.getConverter().getMappingContext(),
+                            new QueryMapper(mongoOperations.getConverter())));
+
+            mongoOperations.execute(sourceCollectionName, collection -> {
+                collection.aggregate(stages).allowDiskUse(true).toCollection();
+                return null;
+            });
+        }
+
+        Date now = new Date();
+        mongoOperations.upsert(query(where("_id").is(collectionName)),
+                Update.update("highWaterMark", highWaterMark == null ? storedHighWaterMark : highWaterMark)
+                        .set("refreshedAt", now),
+                STATE_COLLECTION_NAME);
+    }
+
+    private Document findState() {
+        return mongoOperations.findById(collectionName, Document.class, STATE_COLLECTION_NAME);
+    }
+}
@@ -1,9 +1,11 @@
 package org.springframework.data.mongodb.datatables;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonView;
 import lombok.Data;
 
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 @Data
@@ -47,6 +49,14 @@ public final class DataTablesOutput<T> {
     @JsonView(View.class)
     private String error;
 
+    /**
+     * Optional: the date of the last refresh of the {@link DataTablesMaterializedView} the data comes from. Not
+     * included if the data was read from the source collection.
+     */
+    @JsonView(View.class)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Date refreshedAt;
+
     public interface View {
     }
 
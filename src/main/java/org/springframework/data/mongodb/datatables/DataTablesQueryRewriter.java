@@ -0,0 +1,269 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Simplifies the clauses generated for a DataTables query into a single, canonical query object:
+ * <ul>
+ * <li>nested {@code $and} clauses are flattened, and the clauses on the same field are merged (for example
+ * {@code {a: {$gte: 1}}} and {@code {a: {$lte: 2}}} into {@code {a: {$gte: 1, $lte: 2}}}), instead of failing like
+ * {@link org.springframework.data.mongodb.core.query.Query#addCriteria(org.springframework.data.mongodb.core.query.CriteriaDefinition)}.
+ * The clauses which cannot be merged without changing the results on an array field (like two {@code $in} clauses,
+ * since {@code {a: [1, 3]}} matches both {@code {a: {$in: [1, 2]}}} and {@code {a: {$in: [3]}}}), and the top-level
+ * operators (like {@code $expr}), are kept in a {@code $and} clause</li>
+ * <li>case-sensitive anchored regular expressions matching literal values ({@code /^abc$/} or {@code /^(a|b)$/}) are
+ * turned into equality and {@code $in} clauses, which can use an index</li>
+ * <li>{@code $or} clauses whose branches are equality clauses on the same field are turned into a {@code $in} clause</li>
+ * <li>tautologies are removed: empty clauses, {@code $or} clauses with an empty branch, and {@code $or} clauses with a
+ * branch already required by another clause (like a global search covered by a column search)</li>
+ * <li>the equality clauses are written first, then the {@code $in} clauses, the other operators, the regular
+ * expressions and finally the logical operators</li>
+ * </ul>
+ * Note: unlike an equality clause, {@code /^abc$/} also matches {@code "abc\n"}.
+ */
+final class DataTablesQueryRewriter {
+
+    private static final Pattern LITERAL_ALTERNATION = Pattern.compile("^\\^\\(([^()]*)\\)\\$$");
+    private static final Pattern LITERAL = Pattern.compile("^\\^((?:[^\\\\.\\[\\]{}()*+?^$|]|\\\\[^a-zA-Z0-9])*)\\$$");
+    private static final Pattern ESCAPED_CHARACTER = Pattern.compile("\\\\(.)");
+
+    private DataTablesQueryRewriter() {
+    }
+
+    static Document rewrite(List<Criteria> clauses) {
+        return rewrite(clauses.stream().map(Criteria::getCriteriaObject).collect(toList()));
+    }
+
+    private static Document rewrite(Iterable<? extends Map<?, ?>> documents) {
+        List<Clause> clauses = new ArrayList<>();
+        documents.forEach(document -> collect(document, clauses));
+        removeImpliedDisjunctions(clauses);
+
+        Map<String, List<Object>> valuesByKey = new LinkedHashMap<>();
+        clauses.forEach(clause -> addValue(valuesByKey.computeIfAbsent(clause.key, key -> new ArrayList<>()), clause.value));
+
+        List<Clause> merged = new ArrayList<>();
+        List<Object> conjunction = new ArrayList<>();
+        valuesByKey.forEach((key, values) -> {
+            Object value = values.get(0);
+            for (int i = 1; i < values.size(); i++) {
+                Object mergedValue = key.startsWith("$") ? null : merge(value, values.get(i));
+                if (mergedValue != null) {
+                    value = mergedValue;
+                } else {
+                    conjunction.add(new Document(key, values.get(i)));
+                }
+            }
+            merged.add(new Clause(key, value));
+        });
+        if (!conjunction.isEmpty()) {
+            merged.add(new Clause("$and", conjunction));
+        }
+
+        merged.sort(Comparator.comparingInt(Clause::rank));
+        Document query = new Document();
+        merged.forEach(clause -> query.put(clause.key, clause.value));
+        return query;
+    }
+
+    private static void collect(Map<?, ?> document, List<Clause> clauses) {
+        document.forEach((field, value) -> {
+            String key = String.valueOf(field);
+            if ("$and".equals(key)) {
+                ((Iterable<?>) value).forEach(element -> collect((Map<?, ?>) element, clauses));
+            } else if ("$or".equals(key)) {
+                collectDisjunction((Iterable<?>) value, clauses);
+            } else if (key.startsWith("$")) {
+                clauses.add(new Clause(key, value));
+            } else {
+                clauses.add(new Clause(key, value instanceof Pattern ? toLiteral((Pattern) value) : value));
+            }
+        });
+    }
+
+    private static void collectDisjunction(Iterable<?> elements, List<Clause> clauses) {
+        List<Document> branches = new ArrayList<>();
+        for (Object element : elements) {
+            Document branch = rewrite(Collections.singletonList((Map<?, ?>) element));
+            if (branch.isEmpty()) {
+                return;
+            }
+            branches.add(branch);
+        }
+
+        if (branches.size() == 1) {
+            collect(branches.get(0), clauses);
+            return;
+        }
+        Clause in = toInClause(branches);
+        if (in != null) {
+            clauses.add(in);
+        } else {
+            clauses.add(new Clause("$or", branches));
+        }
+    }
+
+    /**
+     * Returns the {@code $in} clause equivalent to the given branches, if they all are equality or {@code $in} clauses
+     * on the same field. An empty {@code $or} is kept as is, to be rejected by the server.
+     */
+    private static Clause toInClause(List<Document> branches) {
+        if (branches.isEmpty()) return null;
+
+        String field = null;
+        Set<Object> values = new LinkedHashSet<>();
+        for (Document branch : branches) {
+            if (branch.size() != 1) return null;
+            String key = branch.keySet().iterator().next();
+            if (key.startsWith("$") || (field != null && !field.equals(key))) return null;
+            field = key;
+
+            Object value = branch.get(key);
+            if (isEquality(value)) {
+                values.add(value);
+            } else if (value instanceof Map && ((Map<?, ?>) value).size() == 1 && ((Map<?, ?>) value).containsKey("$in")) {
+                ((Iterable<?>) ((Map<?, ?>) value).get("$in")).forEach(values::add);
+            } else {
+                return null;
+            }
+        }
+        return new Clause(field, new Document("$in", new ArrayList<>(values)));
+    }
+
+    /**
+     * Removes the {@code $or} clauses having a branch whose clauses are all required by the other clauses.
+     */
+    private static void removeImpliedDisjunctions(List<Clause> clauses) {
+        clauses.removeIf(clause -> "$or".equals(clause.key) && ((List<?>) clause.value).stream()
+                .anyMatch(branch -> ((Map<?, ?>) branch).entrySet().stream()
+                        .allMatch(entry -> clauses.stream().anyMatch(other -> !"$or".equals(other.key)
+                                && other.key.equals(entry.getKey()) && isSame(other.value, entry.getValue())))));
+    }
+
+    private static Object toLiteral(Pattern pattern) {
+        if (pattern.flags() != 0) return pattern;
+
+        Matcher alternation = LITERAL_ALTERNATION.matcher(pattern.pattern());
+        if (alternation.matches()) {
+            List<Object> values = new ArrayList<>();
+            for (String alternative : alternation.group(1).split("\\|", -1)) {
+                Matcher literal = LITERAL.matcher("^" + alternative + "$");
+                if (!literal.matches()) return pattern;
+                values.add(unescape(literal.group(1)));
+            }
+            return values.size() == 1 ? values.get(0) : new Document("$in", values);
+        }
+
+        Matcher literal = LITERAL.matcher(pattern.pattern());
+        return literal.matches() ? unescape(literal.group(1)) : pattern;
+    }
+
+    private static String unescape(String value) {
+        return ESCAPED_CHARACTER.matcher(value).replaceAll("$1");
+    }
+
+    private static void addValue(List<Object> values, Object value) {
+        if (values.stream().noneMatch(existing -> isSame(existing, value))) {
+            values.add(value);
+        }
+    }
+
+    /**
+     * Returns a value matching the documents matched by both given values of a field, or {@literal null} if they
+     * cannot be merged. Each operator of a field is evaluated independently on the elements of an array (for example
+     * {@code {a: {$gte: 1, $lte: 2}}} matches {@code {a: [0, 3]}}), so the operator documents with distinct operators
+     * can be merged, but not the values of the same operator.
+     */
+    private static Object merge(Object first, Object second) {
+        if (isOperatorDocument(first) && isOperatorDocument(second)) {
+            Map<?, ?> firstOperators = (Map<?, ?>) first;
+            Map<?, ?> secondOperators = (Map<?, ?>) second;
+            if (firstOperators.keySet().stream().noneMatch(secondOperators::containsKey)) {
+                Document operators = new Document();
+                firstOperators.forEach((key, value) -> operators.put(String.valueOf(key), value));
+                secondOperators.forEach((key, value) -> operators.put(String.valueOf(key), value));
+                return operators;
+            }
+        } else if (isEquality(first) && isInDocument(second) && contains((Iterable<?>) ((Map<?, ?>) second).get("$in"), first)) {
+            return first;
+        } else if (isEquality(second) && isInDocument(first) && contains((Iterable<?>) ((Map<?, ?>) first).get("$in"), second)) {
+            return second;
+        }
+        return null;
+    }
+
+    private static boolean isOperatorDocument(Object value) {
+        return value instanceof Map && !((Map<?, ?>) value).isEmpty()
+                && ((Map<?, ?>) value).keySet().stream().allMatch(key -> String.valueOf(key).startsWith("$"));
+    }
+
+    private static boolean isInDocument(Object value) {
+        return isOperatorDocument(value) && ((Map<?, ?>) value).size() == 1 && ((Map<?, ?>) value).containsKey("$in");
+    }
+
+    private static boolean isEquality(Object value) {
+        return !(value instanceof Map) && !(value instanceof Pattern) && !(value instanceof Iterable);
+    }
+
+    private static boolean contains(Iterable<?> values, Object value) {
+        for (Object element : values) {
+            if (isSame(element, value)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isSame(Object first, Object second) {
+        if (first instanceof Pattern && second instanceof Pattern) {
+            return ((Pattern) first).pattern().equals(((Pattern) second).pattern())
+                    && ((Pattern) first).flags() == ((Pattern) second).flags();
+        } else if (first instanceof Map && second instanceof Map) {
+            Map<?, ?> firstMap = (Map<?, ?>) first;
+            Map<?, ?> secondMap = (Map<?, ?>) second;
+            return firstMap.size() == secondMap.size() && firstMap.entrySet().stream().allMatch(entry ->
+                    secondMap.containsKey(entry.getKey()) && isSame(entry.getValue(), secondMap.get(entry.getKey())));
+        } else if (first instanceof List && second instanceof List) {
+            List<?> firstList = (List<?>) first;
+            List<?> secondList = (List<?>) second;
+            if (firstList.size() != secondList.size()) return false;
+            for (int i = 0; i < firstList.size(); i++) {
+                if (!isSame(firstList.get(i), secondList.get(i))) return false;
+            }
+            return true;
+        }
+        return Objects.equals(first, second);
+    }
+
+    private static final class Clause {
+
+        private final String key;
+        private final Object value;
+
+        Clause(String key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        int rank() {
+            if (key.startsWith("$")) return 4;
+            if (value instanceof Pattern) return 3;
+            if (isInDocument(value)) return 1;
+            if (isOperatorDocument(value)) return 2;
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.springframework.data.mongodb.datatables;
+
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import com.mongodb.client.MongoCollection;
+import lombok.Data;
+import org.bson.Document;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read preference and read concern of each of the reads of a {@link DataTablesRepository#findAll} call: the total
+ * count, the filtered count and the page of data. For example, the counts can be sent to the secondaries of a replica
+ * set, while the page stays on the primary:
+ *
+ * <pre>
+ * &#064;Bean
+ * public DataTablesReadSettings dataTablesReadSettings() {
+ *     DataTablesReadSettings settings = new DataTablesReadSettings();
+ *     settings.getTotalCount().setReadPreference(ReadPreference.secondaryPreferred());
+ *     settings.getTotalCount().setMaxStalenessSeconds(120L);
+ *     settings.getFilteredCount().setReadPreference(ReadPreference.secondaryPreferred());
+ *     return settings;
+ * }
+ * </pre>
+ * <p>
+ * A bean of this type is picked up by the {@link DataTablesRepositoryFactoryBean}. The unset values default to the
+ * ones of the {@link MongoTemplate} of the repositories (and then of the {@link com.mongodb.MongoClient}). Requires
+ * the {@link MongoOperations} of the repositories to be a {@link MongoTemplate}: the reads with specific settings go
+ * through a read-only copy of this template, with the same factory, converter and (unless set) read preference, but
+ * not its other settings (like the session synchronization) nor the behavior of its subclass if any.
+ */
+@Data
+public final class DataTablesReadSettings {
+
+    /**
+     * The settings of the count of the records before filtering.
+     */
+    private Phase totalCount = new Phase();
+
+    /**
+     * The settings of the count of the records after filtering.
+     */
+    private Phase filteredCount = new Phase();
+
+    /**
+     * The settings of the read of the page of data (and of the single aggregation of
+     * {@link DataTablesRepository#findAllBatchWithFacet(java.util.List)}).
+     */
+    private Phase data = new Phase();
+
+    @Data
+    public static final class Phase {
+
+        /**
+         * The read preference, or {@literal null} for the one of the {@link MongoTemplate}.
+         */
+        private ReadPreference readPreference;
+
+        /**
+         * The read concern, or {@literal null} for the one of the {@link MongoDbFactory}.
+         */
+        private ReadConcern readConcern;
+
+        /**
+         * The maximum replication lag of the secondaries to read from, in seconds (90 at least), or {@literal null} for
+         * no limit. Requires a non-primary read preference.
+         */
+        private Long maxStalenessSeconds;
+
+        /**
+         * Returns the {@link MongoOperations} applying these settings, or the given one if none is set.
+         */
+        MongoOperations apply(MongoOperations mongoOperations, ApplicationContext applicationContext) {
+            if (readPreference == null && readConcern == null && maxStalenessSeconds == null) {
+                return mongoOperations;
+            }
+            Assert.isInstanceOf(MongoTemplate.class, mongoOperations, "The read settings require a MongoTemplate");
+
+            MongoTemplate mongoTemplate = (MongoTemplate) mongoOperations;
+            MongoTemplate phaseTemplate = new ReadConcernMongoTemplate(mongoTemplate.getMongoDbFactory(),
+                    mongoTemplate.getConverter(), readConcern);
+
+            phaseTemplate.setReadPreference(getEffectiveReadPreference(
+                    readPreference == null ? getReadPreference(mongoTemplate) : null));
+            if (applicationContext != null) {
+                phaseTemplate.setApplicationContext(applicationContext);
+            }
+            return phaseTemplate;
+        }
+
+        /**
+         * Returns the read preference applied by the given template, or else by its {@link MongoDbFactory} (MongoTemplate
+         * has no getter for it, and the collection is not created).
+         */
+        private static ReadPreference getReadPreference(MongoTemplate mongoTemplate) {
+            return mongoTemplate.execute(DataTablesReadSettings.class.getSimpleName(), MongoCollection::getReadPreference);
+        }
+
+        ReadPreference getEffectiveReadPreference(ReadPreference defaultReadPreference) {
+            ReadPreference effectiveReadPreference = readPreference == null ? defaultReadPreference : readPreference;
+            if (maxStalenessSeconds == null) {
+                return effectiveReadPreference;
+            }
+            Assert.isInstanceOf(TaggableReadPreference.class, effectiveReadPreference,
+                    "maxStalenessSeconds requires a non-primary read preference");
+            return ReadPreference.valueOf(effectiveReadPreference.getName(),
+                    ((TaggableReadPreference) effectiveReadPreference).getTagSetList(), maxStalenessSeconds,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class ReadConcernMongoTemplate extends MongoTemplate {
+
+        private final ReadConcern readConcern;
+
+        ReadConcernMongoTemplate(MongoDbFactory mongoDbFactory, MongoConverter mongoConverter, ReadConcern readConcern) {
+            super(mongoDbFactory, mongoConverter);
+            this.readConcern = readConcern;
+        }
+
+        @Override
+        protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+            MongoCollection<Document> prepared = super.prepareCollection(collection);
+            return readConcern == null ? prepared : prepared.withReadConcern(readConcern);
+        }
+    }
+}
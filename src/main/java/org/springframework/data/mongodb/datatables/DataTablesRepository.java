@@ -1,10 +1,14 @@
 package org.springframework.data.mongodb.datatables;
 
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 @NoRepositoryBean
@@ -59,4 +63,135 @@ public interface DataTablesRepository<T, ID extends Serializable> extends MongoR
     <R> DataTablesOutput<R> findAll(DataTablesInput input, Criteria additionalCriteria,
                                     Criteria preFilteringCriteria, Function<T, R> converter);
 
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}, with each row written as an array of values (one
+     * per column of the input, in the same order), instead of an object. The values are read directly from the fields
+     * of the columns, without mapping the documents to entities (so the custom converters are not applied).
+     * <p>
+     * The field of each column is its {@code name}, or its {@code data} when it is not an index (as DataTables sends
+     * the index of the columns declared without {@code data}).
+     *
+     * @param input the {@link DataTablesInput} mapped from the Ajax request
+     * @return a {@link DataTablesOutput}
+     */
+    DataTablesOutput<Object[]> findAllAsArrays(DataTablesInput input);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}, with each row written as an array of values.
+     *
+     * @param input                the {@link DataTablesInput} mapped from the Ajax request
+     * @param additionalCriteria   an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause)
+     * @return a {@link DataTablesOutput}
+     * @see #findAllAsArrays(DataTablesInput)
+     */
+    DataTablesOutput<Object[]> findAllAsArrays(DataTablesInput input, Criteria additionalCriteria,
+                                               Criteria preFilteringCriteria);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}, computed over the given aggregation pipeline
+     * (for example {@code $lookup}, {@code $unwind} and {@code $addFields} stages joining related documents).
+     * <p>
+     * The search clauses which only touch fields of the base collection are applied before the pipeline, and the
+     * counts are computed without the pipeline when no clause depends on a field added by the pipeline.
+     *
+     * @param input      the {@link DataTablesInput} mapped from the Ajax request
+     * @param pipeline   the base pipeline, returning one row per document of the collection
+     * @param outputType the type of the documents returned by the pipeline
+     * @return a {@link DataTablesOutput}
+     */
+    <R> DataTablesOutput<R> findAll(DataTablesInput input, List<? extends AggregationOperation> pipeline,
+                                    Class<R> outputType);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}, computed over the given aggregation pipeline.
+     *
+     * @param input                the {@link DataTablesInput} mapped from the Ajax request
+     * @param pipeline             the base pipeline, returning one row per document of the collection
+     * @param additionalCriteria   an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param outputType           the type of the documents returned by the pipeline
+     * @return a {@link DataTablesOutput}
+     * @see #findAll(DataTablesInput, List, Class)
+     */
+    <R> DataTablesOutput<R> findAll(DataTablesInput input, List<? extends AggregationOperation> pipeline,
+                                    Criteria additionalCriteria, Criteria preFilteringCriteria, Class<R> outputType);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}, read from the collection of the given
+     * {@link DataTablesMaterializedView}.
+     *
+     * @param input      the {@link DataTablesInput} mapped from the Ajax request
+     * @param view       the {@link DataTablesMaterializedView} to read from
+     * @param outputType the type of the documents of the view
+     * @return a {@link DataTablesOutput}, with the date of the last refresh of the view
+     */
+    <R> DataTablesOutput<R> findAll(DataTablesInput input, DataTablesMaterializedView view, Class<R> outputType);
+
+    /**
+     * Returns the filtered list for the given {@link DataTablesInput}, read from the collection of the given
+     * {@link DataTablesMaterializedView}.
+     *
+     * @param input                the {@link DataTablesInput} mapped from the Ajax request
+     * @param view                 the {@link DataTablesMaterializedView} to read from
+     * @param additionalCriteria   an additional {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param preFilteringCriteria a pre-filtering {@link Criteria} to apply to the query (with an "AND" clause)
+     * @param outputType           the type of the documents of the view
+     * @return a {@link DataTablesOutput}, with the date of the last refresh of the view
+     */
+    <R> DataTablesOutput<R> findAll(DataTablesInput input, DataTablesMaterializedView view,
+                                    Criteria additionalCriteria, Criteria preFilteringCriteria, Class<R> outputType);
+
+    /**
+     * Returns the filtered lists for the given {@link DataTablesBatchEntry}s, for example for a screen displaying
+     * several tables of the same collection.
+     * <p>
+     * The queries are run in parallel on the given {@link Executor}, and the identical count queries (for example the
+     * total count of the entries sharing the same pre-filtering criteria) are only run once.
+     *
+     * @param entries  the {@link DataTablesBatchEntry}s
+     * @param executor the {@link Executor} running the queries
+     * @return the {@link DataTablesOutput}s, in the order of the entries, each with its own error if any
+     */
+    List<DataTablesOutput<T>> findAllBatch(List<DataTablesBatchEntry> entries, Executor executor);
+
+    /**
+     * Returns the filtered lists for the given {@link DataTablesBatchEntry}s, computed with a single aggregation with
+     * a {@code $facet} stage (one sub-pipeline per distinct count query and per page).
+     * <p>
+     * This saves round trips, but note that the sub-pipelines of a {@code $facet} stage cannot use indexes, and that
+     * the whole result must fit in a single 16 MB document.
+     *
+     * @param entries the {@link DataTablesBatchEntry}s
+     * @return the {@link DataTablesOutput}s, in the order of the entries
+     */
+    List<DataTablesOutput<T>> findAllBatchWithFacet(List<DataTablesBatchEntry> entries);
+
+    /**
+     * Applies the given {@link DataTablesEditorInput} (rows created, edited or removed with DataTables Editor) as a
+     * single ordered bulk write.
+     *
+     * @param input the {@link DataTablesEditorInput} mapped from the Ajax request
+     * @return a {@link DataTablesEditorOutput}
+     * @see #edit(DataTablesEditorInput, BulkOperations.BulkMode)
+     */
+    DataTablesEditorOutput<T> edit(DataTablesEditorInput input);
+
+    /**
+     * Applies the given {@link DataTablesEditorInput} as a single bulk write: the created rows are inserted, only the
+     * submitted fields of the edited rows are updated (with {@code $set}), and the removed rows are deleted.
+     * <p>
+     * If a submitted value cannot be converted to the type of its property, nothing is written and the errors are
+     * returned as field errors. The write errors (like a duplicate key) are returned in the error message, by row id.
+     * The created rows and the updates set the {@code @LastModifiedDate} property, and the created rows start at
+     * version 0. When the {@code @Version} property is submitted with an edited row, the row is only updated if its
+     * version is unchanged, and is otherwise reported as a conflict in the error message. The
+     * {@link DataTablesSearchIndex search tokens} are computed again when an indexed field is edited.
+     *
+     * @param input    the {@link DataTablesEditorInput} mapped from the Ajax request
+     * @param bulkMode whether to stop at the first write error ({@link BulkOperations.BulkMode#ORDERED}) or not
+     * @return a {@link DataTablesEditorOutput}, with the created and edited rows as stored in the database
+     */
+    DataTablesEditorOutput<T> edit(DataTablesEditorInput input, BulkOperations.BulkMode bulkMode);
+
 }
@@ -1,35 +1,67 @@
 package org.springframework.data.mongodb.datatables;
 
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
 import org.springframework.data.mongodb.repository.support.MongoRepositoryFactoryBean;
+import org.springframework.data.repository.core.RepositoryInformation;
 import org.springframework.data.repository.core.RepositoryMetadata;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
 
 import java.io.Serializable;
 
 public final class DataTablesRepositoryFactoryBean<R extends MongoRepository<T, ID>, T, ID extends Serializable>
-        extends MongoRepositoryFactoryBean<R, T, ID> {
+        extends MongoRepositoryFactoryBean<R, T, ID> implements ApplicationContextAware {
+
+    private BeanFactory beanFactory;
+    private ApplicationContext applicationContext;
 
     public DataTablesRepositoryFactoryBean(Class<? extends R> repositoryInterface) {
         super(repositoryInterface);
     }
 
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        super.setBeanFactory(beanFactory);
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
     @Override
     protected RepositoryFactorySupport getFactoryInstance(MongoOperations operations) {
-        return new DataTablesRepositoryFactory(operations);
+        DataTablesReadSettings readSettings = beanFactory == null ? null
+                : beanFactory.getBeanProvider(DataTablesReadSettings.class).getIfAvailable();
+        return new DataTablesRepositoryFactory(operations, readSettings, applicationContext);
     }
 
     private static class DataTablesRepositoryFactory extends MongoRepositoryFactory {
 
+        private final MongoOperations totalCountOperations;
+        private final MongoOperations filteredCountOperations;
+        private final MongoOperations dataOperations;
+
         /**
          * Creates a new {@link MongoRepositoryFactory} with the given {@link MongoOperations}.
          *
-         * @param mongoOperations must not be {@literal null}.
+         * @param mongoOperations    must not be {@literal null}.
+         * @param readSettings       the {@link DataTablesReadSettings} of the repositories, may be {@literal null}.
+         * @param applicationContext the context publishing the mapping events, may be {@literal null}.
          */
-        DataTablesRepositoryFactory(MongoOperations mongoOperations) {
+        DataTablesRepositoryFactory(MongoOperations mongoOperations, DataTablesReadSettings readSettings,
+                                    ApplicationContext applicationContext) {
             super(mongoOperations);
+            DataTablesReadSettings settings = readSettings == null ? new DataTablesReadSettings() : readSettings;
+            this.totalCountOperations = settings.getTotalCount().apply(mongoOperations, applicationContext);
+            this.filteredCountOperations = settings.getFilteredCount().apply(mongoOperations, applicationContext);
+            this.dataOperations = settings.getData().apply(mongoOperations, applicationContext);
         }
 
         @Override
@@ -41,5 +73,15 @@ public final class DataTablesRepositoryFactoryBean<R extends MongoRepository<T,
                 return super.getRepositoryBaseClass(metadata);
             }
         }
+
+        @Override
+        protected Object getTargetRepository(RepositoryInformation information) {
+            Object repository = super.getTargetRepository(information);
+            if (repository instanceof DataTablesRepositoryImpl) {
+                ((DataTablesRepositoryImpl<?, ?>) repository).setReadOperations(totalCountOperations,
+                        filteredCountOperations, dataOperations);
+            }
+            return repository;
+        }
     }
 }
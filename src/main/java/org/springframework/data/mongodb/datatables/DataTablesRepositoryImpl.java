@@ -1,15 +1,34 @@
 package org.springframework.data.mongodb.datatables;
 
+import org.bson.Document;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
 import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static java.util.stream.Collectors.toList;
 import static org.springframework.data.mongodb.core.query.Query.query;
 
@@ -18,6 +37,12 @@ final class DataTablesRepositoryImpl<T, ID extends Serializable> extends SimpleM
 
     private final MongoEntityInformation<T, ID> metadata;
     private final MongoOperations mongoOperations;
+    private final DataTablesSearchIndex searchIndex;
+    private final QueryMapper queryMapper;
+
+    private MongoOperations totalCountOperations;
+    private MongoOperations filteredCountOperations;
+    private MongoOperations dataOperations;
 
     /**
      * Creates a new {@link SimpleMongoRepository} for the given {@link MongoEntityInformation} and {@link MongoTemplate}.
@@ -29,6 +54,23 @@ final class DataTablesRepositoryImpl<T, ID extends Serializable> extends SimpleM
         super(metadata, mongoOperations);
         this.metadata = metadata;
         this.mongoOperations = mongoOperations;
+        this.searchIndex = AnnotatedElementUtils.findMergedAnnotation(metadata.getJavaType(), DataTablesSearchIndex.class);
+        this.queryMapper = new QueryMapper(mongoOperations.getConverter());
+        this.totalCountOperations = mongoOperations;
+        this.filteredCountOperations = mongoOperations;
+        this.dataOperations = mongoOperations;
+    }
+
+    /**
+     * Sets the {@link MongoOperations} used for each of the reads of the {@code findAll} methods, with their own
+     * {@link DataTablesReadSettings} (the writes and the methods inherited from {@link SimpleMongoRepository} are not
+     * affected).
+     */
+    void setReadOperations(MongoOperations totalCountOperations, MongoOperations filteredCountOperations,
+                           MongoOperations dataOperations) {
+        this.totalCountOperations = totalCountOperations;
+        this.filteredCountOperations = filteredCountOperations;
+        this.dataOperations = dataOperations;
     }
 
     @Override
@@ -66,15 +108,15 @@ final class DataTablesRepositoryImpl<T, ID extends Serializable> extends SimpleM
                 return output;
             }
 
-            DataTablesCriteria criteria = new DataTablesCriteria(input, additionalCriteria, preFilteringCriteria);
+            DataTablesCriteria criteria = new DataTablesCriteria(input, additionalCriteria, preFilteringCriteria, searchIndex);
 
-            long recordsFiltered = mongoOperations.count(criteria.toCountQuery(), metadata.getCollectionName());
+            long recordsFiltered = filteredCountOperations.count(criteria.toCountQuery(), metadata.getCollectionName());
             output.setRecordsFiltered(recordsFiltered);
             if (recordsFiltered == 0) {
                 return output;
             }
 
-            List<T> data = mongoOperations.find(criteria.toQuery(), metadata.getJavaType(), metadata.getCollectionName());
+            List<T> data = dataOperations.find(criteria.toQuery(), metadata.getJavaType(), metadata.getCollectionName());
             output.setData(converter == null ? (List<R>) data : data.stream().map(converter).collect(toList()));
 
         } catch (Exception e) {
@@ -84,12 +126,286 @@ final class DataTablesRepositoryImpl<T, ID extends Serializable> extends SimpleM
         return output;
     }
 
+    @Override
+    public DataTablesOutput<Object[]> findAllAsArrays(DataTablesInput input) {
+        return findAllAsArrays(input, null, null);
+    }
+
+    @Override
+    public DataTablesOutput<Object[]> findAllAsArrays(DataTablesInput input, Criteria additionalCriteria, Criteria preFilteringCriteria) {
+        DataTablesOutput<Object[]> output = new DataTablesOutput<>();
+        output.setDraw(input.getDraw());
+        if (input.getLength() == 0) {
+            return output;
+        }
+
+        try {
+            long recordsTotal = count(preFilteringCriteria);
+            output.setRecordsTotal(recordsTotal);
+            if (recordsTotal == 0) {
+                return output;
+            }
+
+            DataTablesCriteria criteria = new DataTablesCriteria(input, additionalCriteria, preFilteringCriteria, searchIndex,
+                    DataTablesArrays::getField);
+
+            long recordsFiltered = filteredCountOperations.count(criteria.toCountQuery(), metadata.getCollectionName());
+            output.setRecordsFiltered(recordsFiltered);
+            if (recordsFiltered == 0) {
+                return output;
+            }
+
+            DataTablesArrays arrays = new DataTablesArrays(input, mongoOperations.getConverter(), metadata.getJavaType());
+            Query query = criteria.toQuery();
+            List<Object[]> data = dataOperations.execute(metadata.getCollectionName(), collection -> {
+                List<Object[]> rows = new ArrayList<>();
+                collection.find(arrays.toFilter(query))
+                        .projection(arrays.toProjection())
+                        .sort(arrays.toSort(query))
+                        .skip((int) query.getSkip())
+                        .limit(Math.max(query.getLimit(), 0))
+                        .forEach((Consumer<Document>) document -> rows.add(arrays.toRow(document)));
+                return rows;
+            });
+            output.setData(data);
+
+        } catch (Exception e) {
+            output.setError(e.toString());
+        }
+
+        return output;
+    }
+
+    @Override
+    public <R> DataTablesOutput<R> findAll(DataTablesInput input, List<? extends AggregationOperation> pipeline, Class<R> outputType) {
+        return findAll(input, pipeline, null, null, outputType);
+    }
+
+    @Override
+    public <R> DataTablesOutput<R> findAll(DataTablesInput input, List<? extends AggregationOperation> pipeline, Criteria additionalCriteria, Criteria preFilteringCriteria, Class<R> outputType) {
+        DataTablesOutput<R> output = new DataTablesOutput<>();
+        output.setDraw(input.getDraw());
+        if (input.getLength() == 0) {
+            return output;
+        }
+
+        try {
+            DataTablesAggregation aggregation = new DataTablesAggregation(input, metadata.getJavaType(), pipeline, additionalCriteria, preFilteringCriteria, searchIndex);
+
+            long recordsTotal = aggregation.isTotalCountJoinFree() ? count(preFilteringCriteria) : count(totalCountOperations, aggregation.toTotalCountAggregation());
+            output.setRecordsTotal(recordsTotal);
+            if (recordsTotal == 0) {
+                return output;
+            }
+
+            long recordsFiltered = aggregation.isFilteredCountJoinFree()
+                    ? filteredCountOperations.count(aggregation.toCountQuery(), metadata.getCollectionName())
+                    : count(filteredCountOperations, aggregation.toCountAggregation());
+            output.setRecordsFiltered(recordsFiltered);
+            if (recordsFiltered == 0) {
+                return output;
+            }
+
+            List<R> data = dataOperations.aggregate(aggregation.toAggregation(), metadata.getCollectionName(), outputType).getMappedResults();
+            output.setData(data);
+
+        } catch (Exception e) {
+            output.setError(e.toString());
+        }
+
+        return output;
+    }
+
+    @Override
+    public <R> DataTablesOutput<R> findAll(DataTablesInput input, DataTablesMaterializedView view, Class<R> outputType) {
+        return findAll(input, view, null, null, outputType);
+    }
+
+    @Override
+    public <R> DataTablesOutput<R> findAll(DataTablesInput input, DataTablesMaterializedView view, Criteria additionalCriteria, Criteria preFilteringCriteria, Class<R> outputType) {
+        DataTablesOutput<R> output = new DataTablesOutput<>();
+        output.setDraw(input.getDraw());
+        if (input.getLength() == 0) {
+            return output;
+        }
+
+        try {
+            output.setRefreshedAt(view.getRefreshedAt());
+
+            long recordsTotal = totalCountOperations.count(toTotalCountQuery(preFilteringCriteria), view.getCollectionName());
+            output.setRecordsTotal(recordsTotal);
+            if (recordsTotal == 0) {
+                return output;
+            }
+
+            DataTablesCriteria criteria = new DataTablesCriteria(input, additionalCriteria, preFilteringCriteria);
+
+            long recordsFiltered = filteredCountOperations.count(criteria.toCountQuery(), view.getCollectionName());
+            output.setRecordsFiltered(recordsFiltered);
+            if (recordsFiltered == 0) {
+                return output;
+            }
+
+            List<R> data = dataOperations.find(criteria.toQuery(), outputType, view.getCollectionName());
+            output.setData(data);
+
+        } catch (Exception e) {
+            output.setError(e.toString());
+        }
+
+        return output;
+    }
+
+    @Override
+    public List<DataTablesOutput<T>> findAllBatch(List<DataTablesBatchEntry> entries, Executor executor) {
+        Map<MongoOperations, Map<String, CompletableFuture<Long>>> counts = new HashMap<>();
+        List<CompletableFuture<DataTablesOutput<T>>> outputs = entries.stream()
+                .map(entry -> findAllAsync(entry, counts, executor))
+                .collect(toList());
+        return outputs.stream().map(CompletableFuture::join).collect(toList());
+    }
+
+    @Override
+    public List<DataTablesOutput<T>> findAllBatchWithFacet(List<DataTablesBatchEntry> entries) {
+        List<DataTablesOutput<T>> outputs = new ArrayList<>();
+        Map<String, String> countFacetNames = new HashMap<>();
+        Map<String, List<AggregationOperation>> facets = new LinkedHashMap<>();
+        List<String[]> entryFacetNames = new ArrayList<>();
+
+        try {
+            for (DataTablesBatchEntry entry : entries) {
+                DataTablesInput input = entry.getInput();
+                DataTablesOutput<T> output = new DataTablesOutput<>();
+                output.setDraw(input.getDraw());
+                outputs.add(output);
+                if (input.getLength() == 0) {
+                    entryFacetNames.add(null);
+                    continue;
+                }
+
+                Criteria preFilteringCriteria = entry.getPreFilteringCriteria();
+                DataTablesAggregation aggregation = new DataTablesAggregation(input, metadata.getJavaType(), emptyList(), entry.getAdditionalCriteria(), preFilteringCriteria, searchIndex);
+
+                String totalFacetName = countFacetNames.computeIfAbsent(toKey(toTotalCountQuery(preFilteringCriteria)), key -> "count" + countFacetNames.size());
+                facets.putIfAbsent(totalFacetName, aggregation.toTotalCountOperations());
+                String filteredFacetName = countFacetNames.computeIfAbsent(toKey(aggregation.toCountQuery()), key -> "count" + countFacetNames.size());
+                facets.putIfAbsent(filteredFacetName, aggregation.toCountOperations());
+                String dataFacetName = "data" + outputs.size();
+                facets.put(dataFacetName, aggregation.toOperations());
+
+                entryFacetNames.add(new String[]{totalFacetName, filteredFacetName, dataFacetName});
+            }
+            if (facets.isEmpty()) {
+                return outputs;
+            }
+
+            FacetOperation facet = Aggregation.facet();
+            for (Map.Entry<String, List<AggregationOperation>> entry : facets.entrySet()) {
+                facet = facet.and(entry.getValue().toArray(new AggregationOperation[0])).as(entry.getKey());
+            }
+            Document result = dataOperations.aggregate(Aggregation.newAggregation(metadata.getJavaType(), facet), metadata.getCollectionName(), Document.class).getUniqueMappedResult();
+
+            for (int i = 0; i < outputs.size(); i++) {
+                String[] facetNames = entryFacetNames.get(i);
+                if (facetNames == null) continue;
+
+                DataTablesOutput<T> output = outputs.get(i);
+                output.setRecordsTotal(toCount(result.getList(facetNames[0], Document.class)));
+                output.setRecordsFiltered(toCount(result.getList(facetNames[1], Document.class)));
+                output.setData(result.getList(facetNames[2], Document.class).stream()
+                        .map(document -> mongoOperations.getConverter().read(metadata.getJavaType(), document))
+                        .collect(toList()));
+            }
+        } catch (Exception e) {
+            outputs.forEach(output -> output.setError(e.toString()));
+        }
+
+        return outputs;
+    }
+
+    private CompletableFuture<DataTablesOutput<T>> findAllAsync(DataTablesBatchEntry entry, Map<MongoOperations, Map<String, CompletableFuture<Long>>> counts, Executor executor) {
+        DataTablesInput input = entry.getInput();
+        DataTablesOutput<T> output = new DataTablesOutput<>();
+        output.setDraw(input.getDraw());
+        if (input.getLength() == 0) {
+            return completedFuture(output);
+        }
+
+        try {
+            DataTablesCriteria criteria = new DataTablesCriteria(input, entry.getAdditionalCriteria(), entry.getPreFilteringCriteria(), searchIndex);
+
+            CompletableFuture<Long> recordsTotal = count(totalCountOperations, toTotalCountQuery(entry.getPreFilteringCriteria()), counts, executor);
+            CompletableFuture<Long> recordsFiltered = count(filteredCountOperations, criteria.toCountQuery(), counts, executor);
+            CompletableFuture<List<T>> data = supplyAsync(() -> dataOperations.find(criteria.toQuery(), metadata.getJavaType(), metadata.getCollectionName()), executor);
+
+            return CompletableFuture.allOf(recordsTotal, recordsFiltered, data).handle((ignored, e) -> {
+                if (e != null) {
+                    output.setError((e instanceof CompletionException ? e.getCause() : e).toString());
+                } else {
+                    output.setRecordsTotal(recordsTotal.join());
+                    output.setRecordsFiltered(recordsFiltered.join());
+                    output.setData(data.join());
+                }
+                return output;
+            });
+
+        } catch (Exception e) {
+            output.setError(e.toString());
+            return completedFuture(output);
+        }
+    }
+
+    @Override
+    public DataTablesEditorOutput<T> edit(DataTablesEditorInput input) {
+        return edit(input, BulkOperations.BulkMode.ORDERED);
+    }
+
+    @Override
+    public DataTablesEditorOutput<T> edit(DataTablesEditorInput input, BulkOperations.BulkMode bulkMode) {
+        try {
+            return new DataTablesEditor<>(mongoOperations, metadata.getJavaType(), metadata.getCollectionName())
+                    .apply(input, bulkMode);
+        } catch (Exception e) {
+            DataTablesEditorOutput<T> output = new DataTablesEditorOutput<>();
+            output.setError(e.toString());
+            return output;
+        }
+    }
+
+    private CompletableFuture<Long> count(MongoOperations operations, Query query, Map<MongoOperations, Map<String, CompletableFuture<Long>>> counts, Executor executor) {
+        // the total and filtered counts are only shared when they are run with the same read settings
+        return counts.computeIfAbsent(operations, key -> new HashMap<>()).computeIfAbsent(toKey(query), key ->
+                supplyAsync(() -> operations.count(query, metadata.getCollectionName()), executor));
+    }
+
+    private static Query toTotalCountQuery(Criteria preFilteringCriteria) {
+        return preFilteringCriteria == null ? new Query() : query(preFilteringCriteria);
+    }
+
+    /**
+     * Returns the JSON representation of the mapped query, since the values of the query itself (for example a
+     * {@link java.time.LocalDateTime} or an enum) have no codec before being converted.
+     */
+    private String toKey(Query query) {
+        return queryMapper.getMappedObject(query.getQueryObject(),
+                mongoOperations.getConverter().getMappingContext().getPersistentEntity(metadata.getJavaType())).toJson();
+    }
+
+    private static long toCount(List<Document> countResult) {
+        return countResult.isEmpty() ? 0 : ((Number) countResult.get(0).get("count")).longValue();
+    }
+
     private long count(Criteria preFilteringCriteria) {
         if (preFilteringCriteria == null) {
-            return count();
+            return totalCountOperations.count(new Query(), metadata.getCollectionName());
         } else {
-            return mongoOperations.count(query(preFilteringCriteria), metadata.getCollectionName());
+            return totalCountOperations.count(query(preFilteringCriteria), metadata.getCollectionName());
         }
     }
 
+    private long count(MongoOperations operations, Aggregation aggregation) {
+        Document result = operations.aggregate(aggregation, metadata.getCollectionName(), Document.class).getUniqueMappedResult();
+        return result == null ? 0 : ((Number) result.get("count")).longValue();
+    }
+
 }
@@ -0,0 +1,50 @@
+package org.springframework.data.mongodb.datatables;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity whose searchable fields are indexed as an array of lowercased n-grams, maintained by the
+ * {@link DataTablesSearchIndexListener} when the entity is saved.
+ * <p>
+ * When the index is {@link #enabled()} and all the searchable columns of a {@link DataTablesInput} are listed in
+ * {@link #fields()}, the global search is completed with an {@code $all} clause on the {@link #tokenField()}, which can
+ * use an index (see {@link DataTablesSearchIndexer#ensureIndex(Class)}).
+ * <p>
+ * Since the documents without tokens are not matched by this clause, the index must be rolled out in this order:
+ * register the listener, then create the index and compute the tokens of the existing documents (see
+ * {@link DataTablesSearchIndexer#backfill(Class)}), and only then enable the index.
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DataTablesSearchIndex {
+
+    /**
+     * The fields to index (for example {@code "label"} or {@code "characteristics.value"}), as named in the
+     * document.
+     */
+    String[] fields();
+
+    /**
+     * The field of the document holding the tokens.
+     */
+    String tokenField() default "_searchTokens";
+
+    /**
+     * The size of the n-grams. Search values shorter than this size cannot use the index.
+     */
+    int gramSize() default 3;
+
+    /**
+     * Whether the global search uses the tokens. The tokens are maintained in any case, so this can be turned on once
+     * the tokens of the existing documents are computed.
+     */
+    boolean enabled() default false;
+
+}
@@ -0,0 +1,33 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeSaveEvent;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the search tokens of the entities annotated with {@link DataTablesSearchIndex}, each time they are
+ * saved or inserted.
+ * <p>
+ * It must be registered as a bean in the application context. Note that partial updates (with {@code $set}) do not
+ * trigger the listener, so the tokens must then be refreshed with {@link DataTablesSearchIndexer#backfill(Class)}
+ * (the edits of {@link DataTablesRepository#edit(DataTablesEditorInput)} compute the tokens themselves).
+ */
+public class DataTablesSearchIndexListener extends AbstractMongoEventListener<Object> {
+
+    private final Map<Class<?>, Optional<DataTablesSearchIndex>> searchIndexes = new ConcurrentHashMap<>();
+
+    @Override
+    public void onBeforeSave(BeforeSaveEvent<Object> event) {
+        if (event.getDocument() == null) return;
+
+        Class<?> type = event.getSource().getClass();
+        searchIndexes.computeIfAbsent(type, t -> Optional.ofNullable(
+                AnnotatedElementUtils.findMergedAnnotation(t, DataTablesSearchIndex.class)))
+                .ifPresent(searchIndex -> event.getDocument().put(searchIndex.tokenField(),
+                        SearchTokenizer.tokenize(event.getDocument(), searchIndex)));
+    }
+}
@@ -0,0 +1,86 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.bson.Document;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Creates the index and computes the search tokens of the existing documents of the entities annotated with
+ * {@link DataTablesSearchIndex}.
+ */
+public class DataTablesSearchIndexer {
+
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final MongoOperations mongoOperations;
+    private final int batchSize;
+
+    public DataTablesSearchIndexer(MongoOperations mongoOperations) {
+        this(mongoOperations, DEFAULT_BATCH_SIZE);
+    }
+
+    public DataTablesSearchIndexer(MongoOperations mongoOperations, int batchSize) {
+        this.mongoOperations = mongoOperations;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates the (multikey) index on the token field of the collection of the given entity, if needed.
+     *
+     * @param entityClass an entity annotated with {@link DataTablesSearchIndex}
+     */
+    public void ensureIndex(Class<?> entityClass) {
+        DataTablesSearchIndex searchIndex = getSearchIndex(entityClass);
+        mongoOperations.indexOps(entityClass).ensureIndex(new Index(searchIndex.tokenField(), Sort.Direction.ASC));
+    }
+
+    /**
+     * Computes the search tokens of all the documents of the collection of the given entity, with unordered bulk
+     * updates.
+     *
+     * @param entityClass an entity annotated with {@link DataTablesSearchIndex}
+     * @return the number of processed documents
+     */
+    public long backfill(Class<?> entityClass) {
+        DataTablesSearchIndex searchIndex = getSearchIndex(entityClass);
+        String collectionName = mongoOperations.getCollectionName(entityClass);
+
+        long count = 0;
+        int pending = 0;
+        BulkOperations bulkOperations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+
+        try (CloseableIterator<Document> documents = mongoOperations.stream(new Query(), Document.class, collectionName)) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                bulkOperations.updateOne(Query.query(where("_id").is(document.get("_id"))),
+                        Update.update(searchIndex.tokenField(), SearchTokenizer.tokenize(document, searchIndex)));
+
+                if (++pending == batchSize) {
+                    count += bulkOperations.execute().getMatchedCount();
+                    bulkOperations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            count += bulkOperations.execute().getMatchedCount();
+        }
+        return count;
+    }
+
+    private static DataTablesSearchIndex getSearchIndex(Class<?> entityClass) {
+        DataTablesSearchIndex searchIndex = AnnotatedElementUtils.findMergedAnnotation(entityClass, DataTablesSearchIndex.class);
+        if (searchIndex == null) {
+            throw new IllegalArgumentException(entityClass.getName() + " is not annotated with @DataTablesSearchIndex");
+        }
+        return searchIndex;
+    }
+}
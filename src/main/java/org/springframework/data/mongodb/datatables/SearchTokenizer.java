@@ -0,0 +1,62 @@
+package org.springframework.data.mongodb.datatables;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+final class SearchTokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Returns the n-grams of each word of the given value, once lowercased and stripped from its diacritics. Words
+     * shorter than the gram size are ignored.
+     */
+    static Set<String> tokenize(String value, int gramSize) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        for (String word : WORD_SEPARATOR.split(normalized)) {
+            for (int i = 0; i + gramSize <= word.length(); i++) {
+                tokens.add(word.substring(i, i + gramSize));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the tokens of the indexed fields of the given document.
+     */
+    static List<String> tokenize(Map<?, ?> document, DataTablesSearchIndex searchIndex) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : searchIndex.fields()) {
+            List<Object> values = new ArrayList<>();
+            collectValues(document, field.split("\\."), 0, values);
+            values.forEach(value -> tokens.addAll(tokenize(value.toString(), searchIndex.gramSize())));
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static void collectValues(Object value, String[] path, int index, List<Object> values) {
+        if (value instanceof Collection) {
+            ((Collection<?>) value).forEach(element -> collectValues(element, path, index, values));
+        } else if (index == path.length) {
+            if (value != null) {
+                values.add(value);
+            }
+        } else if (value instanceof Map) {
+            collectValues(((Map<?, ?>) value).get(path[index]), path, index + 1, values);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.lookup;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class DataTablesAggregationTest {
+
+    private static List<AggregationOperation> getPipeline() {
+        return asList(
+                lookup("productLabel", "label", "_id", "labels"),
+                unwind("labels", true),
+                context -> new Document("$addFields", new Document("translation", "$labels.value"))
+        );
+    }
+
+    private static DataTablesInput getInput() {
+        DataTablesInput input = new DataTablesInput();
+        input.setColumns(asList(createColumn("label"), createColumn("translation")));
+        input.setSearch(new DataTablesInput.Search("", false));
+        input.setStart(10);
+        input.setLength(5);
+        return input;
+    }
+
+    private static DataTablesInput.Column createColumn(String columnName) {
+        DataTablesInput.Column column = new DataTablesInput.Column();
+        column.setData(columnName);
+        column.setOrderable(true);
+        column.setSearchable(true);
+        column.setSearch(new DataTablesInput.Search("", false));
+        return column;
+    }
+
+    private static void search(DataTablesInput input, String columnName, String value) {
+        input.getColumn(columnName).ifPresent(column -> column.setSearch(new DataTablesInput.Search(value, false)));
+    }
+
+    private static void orderBy(DataTablesInput input, int column) {
+        input.setOrder(singletonList(new DataTablesInput.Order(column, DataTablesInput.Order.Direction.asc)));
+    }
+
+    private static DataTablesAggregation createAggregation(DataTablesInput input, List<AggregationOperation> pipeline,
+                                                           Criteria preFilteringCriteria) {
+        return new DataTablesAggregation(input, Product.class, pipeline, null, preFilteringCriteria, null);
+    }
+
+    private static List<String> toStageNames(List<AggregationOperation> operations) {
+        List<String> stageNames = new ArrayList<>();
+        operations.forEach(operation -> operation.toPipelineStages(Aggregation.DEFAULT_CONTEXT)
+                .forEach(stage -> stageNames.add(stage.keySet().iterator().next())));
+        return stageNames;
+    }
+
+    private static List<Document> toStages(List<AggregationOperation> operations) {
+        return operations.stream()
+                .flatMap(operation -> operation.toPipelineStages(Aggregation.DEFAULT_CONTEXT).stream())
+                .collect(toList());
+    }
+
+    @DataTablesSearchIndex(fields = "label")
+    private static class DisabledSearchIndex {
+    }
+
+    @DataTablesSearchIndex(fields = "label", enabled = true)
+    private static class EnabledSearchIndex {
+    }
+
+    @Test
+    public void searchIndexEnabled() {
+        DataTablesInput input = getInput();
+        input.setColumns(singletonList(createColumn("label")));
+        input.setSearch(new DataTablesInput.Search("product", false));
+
+        DataTablesAggregation aggregation = new DataTablesAggregation(input, Product.class, emptyList(), null, null,
+                DisabledSearchIndex.class.getAnnotation(DataTablesSearchIndex.class));
+        assertThat(aggregation.toCountQuery().getQueryObject().toJson()).doesNotContain("_searchTokens");
+
+        aggregation = new DataTablesAggregation(input, Product.class, emptyList(), null, null,
+                EnabledSearchIndex.class.getAnnotation(DataTablesSearchIndex.class));
+        assertThat(aggregation.toCountQuery().getQueryObject().toJson()).contains("_searchTokens");
+    }
+
+    @Test
+    public void baseFilterAndSort() {
+        DataTablesInput input = getInput();
+        search(input, "label", "product1");
+        orderBy(input, 0);
+        DataTablesAggregation aggregation = createAggregation(input, getPipeline(), where("isEnabled").is(true));
+
+        assertThat(aggregation.isTotalCountJoinFree()).isTrue();
+        assertThat(aggregation.isFilteredCountJoinFree()).isTrue();
+        assertThat(toStageNames(aggregation.toOperations()))
+                .containsExactly("$match", "$sort", "$skip", "$limit", "$lookup", "$unwind", "$addFields");
+        assertThat(aggregation.toCountQuery().getQueryObject()).containsKeys("label", "isEnabled");
+    }
+
+    @Test
+    public void joinedFilter() {
+        DataTablesInput input = getInput();
+        search(input, "label", "product1");
+        search(input, "translation", "un");
+        orderBy(input, 0);
+        DataTablesAggregation aggregation = createAggregation(input, getPipeline(), null);
+
+        assertThat(aggregation.isTotalCountJoinFree()).isTrue();
+        assertThat(aggregation.isFilteredCountJoinFree()).isFalse();
+        assertThat(toStageNames(aggregation.toOperations()))
+                .containsExactly("$match", "$lookup", "$unwind", "$addFields", "$match", "$sort", "$skip", "$limit");
+        List<Document> countStages = toStages(aggregation.toCountOperations());
+        assertThat(countStages).extracting(stage -> stage.keySet().iterator().next())
+                .containsExactly("$match", "$lookup", "$unwind", "$addFields", "$match", "$count");
+        assertThat(countStages.get(0).get("$match", Document.class)).containsOnlyKeys("label");
+        assertThat(countStages.get(4).get("$match", Document.class)).containsOnlyKeys("translation");
+    }
+
+    @Test
+    public void joinedSort() {
+        DataTablesInput input = getInput();
+        search(input, "label", "product1");
+        orderBy(input, 1);
+        DataTablesAggregation aggregation = createAggregation(input, getPipeline(), null);
+
+        assertThat(aggregation.isFilteredCountJoinFree()).isTrue();
+        assertThat(toStageNames(aggregation.toOperations()))
+                .containsExactly("$match", "$lookup", "$unwind", "$addFields", "$sort", "$skip", "$limit");
+    }
+
+    @Test
+    public void joinedPreFilteringCriteria() {
+        DataTablesAggregation aggregation = createAggregation(getInput(), getPipeline(), where("translation").is("produit un"));
+
+        assertThat(aggregation.isTotalCountJoinFree()).isFalse();
+        assertThat(aggregation.isFilteredCountJoinFree()).isFalse();
+        assertThat(toStageNames(aggregation.toTotalCountOperations()))
+                .containsExactly("$lookup", "$unwind", "$addFields", "$match", "$count");
+    }
+
+    @Test
+    public void matchStage() {
+        List<AggregationOperation> pipeline = new ArrayList<>(getPipeline());
+        pipeline.add(match(where("translation").exists(true)));
+        DataTablesInput input = getInput();
+        search(input, "label", "product1");
+        orderBy(input, 0);
+        DataTablesAggregation aggregation = createAggregation(input, pipeline, null);
+
+        // the $match stage may drop rows, so the counts and the paging need the pipeline
+        assertThat(aggregation.isTotalCountJoinFree()).isFalse();
+        assertThat(aggregation.isFilteredCountJoinFree()).isFalse();
+        assertThat(toStageNames(aggregation.toOperations()))
+                .containsExactly("$match", "$lookup", "$unwind", "$addFields", "$match", "$sort", "$skip", "$limit");
+    }
+
+    @Test
+    public void unwindWithoutPreserveNullAndEmptyArrays() {
+        List<AggregationOperation> pipeline = asList(lookup("productLabel", "label", "_id", "labels"), unwind("labels"));
+        DataTablesAggregation aggregation = createAggregation(getInput(), pipeline, null);
+
+        assertThat(aggregation.isTotalCountJoinFree()).isFalse();
+        assertThat(toStageNames(aggregation.toOperations())).containsExactly("$lookup", "$unwind", "$skip", "$limit");
+    }
+
+    @Test
+    public void opaqueStage() {
+        List<AggregationOperation> pipeline = new ArrayList<>(getPipeline());
+        pipeline.add(group("label").first("translation").as("translation"));
+        DataTablesInput input = getInput();
+        search(input, "label", "product1");
+        orderBy(input, 0);
+        DataTablesAggregation aggregation = createAggregation(input, pipeline, where("isEnabled").is(true));
+
+        // nothing can be pushed ahead of an unknown stage
+        assertThat(aggregation.isTotalCountJoinFree()).isFalse();
+        assertThat(aggregation.isFilteredCountJoinFree()).isFalse();
+        assertThat(toStageNames(aggregation.toOperations()))
+                .containsExactly("$lookup", "$unwind", "$addFields", "$group", "$match", "$sort", "$skip", "$limit");
+        assertThat(toStageNames(aggregation.toTotalCountOperations()))
+                .containsExactly("$lookup", "$unwind", "$addFields", "$group", "$match", "$count");
+    }
+}
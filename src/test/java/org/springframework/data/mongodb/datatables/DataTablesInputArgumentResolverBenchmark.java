@@ -0,0 +1,106 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.ServletRequestDataBinder;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link DataTablesInputArgumentResolver} with the {@link ServletRequestDataBinder} (which requires the
+ * parameters to be rewritten by {@code jquery.spring-friendly.js}).
+ * <p>
+ * Run its {@code main} method with the test classpath (for example from the IDE).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataTablesInputArgumentResolverBenchmark {
+
+    @Param({"10", "50"})
+    private int columns;
+
+    private final DataTablesInputArgumentResolver resolver = new DataTablesInputArgumentResolver();
+
+    private MockHttpServletRequest nativeRequest;
+    private MockHttpServletRequest springFriendlyRequest;
+    private MockHttpServletRequest jsonRequest;
+
+    @Setup
+    public void setup() {
+        nativeRequest = createRequest("%s[%s]");
+        springFriendlyRequest = createRequest("%s.%s");
+
+        StringBuilder json = new StringBuilder("{\"draw\":1,\"start\":0,\"length\":10,\"search\":{\"value\":\"\",\"regex\":false},\"columns\":[");
+        for (int i = 0; i < columns; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"data\":\"field").append(i).append("\",\"name\":\"\",\"searchable\":true,")
+                    .append("\"orderable\":true,\"search\":{\"value\":\"\",\"regex\":false}}");
+        }
+        json.append("],\"order\":[{\"column\":0,\"dir\":\"asc\"}]}");
+        jsonRequest = new MockHttpServletRequest("POST", "/");
+        jsonRequest.setContentType("application/json");
+        jsonRequest.setContent(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MockHttpServletRequest createRequest(String format) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addParameter("draw", "1");
+        request.addParameter("start", "0");
+        request.addParameter("length", "10");
+        request.addParameter(String.format(format, "search", "value"), "");
+        request.addParameter(String.format(format, "search", "regex"), "false");
+        for (int i = 0; i < columns; i++) {
+            String column = "columns[" + i + "]";
+            request.addParameter(String.format(format, column, "data"), "field" + i);
+            request.addParameter(String.format(format, column, "name"), "");
+            request.addParameter(String.format(format, column, "searchable"), "true");
+            request.addParameter(String.format(format, column, "orderable"), "true");
+            request.addParameter(String.format(format, column, "search") + String.format(format, "", "value"), "");
+            request.addParameter(String.format(format, column, "search") + String.format(format, "", "regex"), "false");
+        }
+        request.addParameter(String.format(format, "order[0]", "column"), "0");
+        request.addParameter(String.format(format, "order[0]", "dir"), "asc");
+        return request;
+    }
+
+    @Benchmark
+    public DataTablesInput dataBinder() {
+        DataTablesInput input = new DataTablesInput();
+        new ServletRequestDataBinder(input).bind(springFriendlyRequest);
+        return input;
+    }
+
+    @Benchmark
+    public DataTablesInput resolverNativeParameters() throws ServletRequestBindingException {
+        return resolver.resolveArgument(null, null, new ServletWebRequest(nativeRequest), null);
+    }
+
+    @Benchmark
+    public DataTablesInput resolverJsonBody() throws ServletRequestBindingException {
+        jsonRequest.setContent(jsonRequest.getContentAsByteArray());
+        return resolver.resolveArgument(null, null, new ServletWebRequest(jsonRequest), null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DataTablesInputArgumentResolverBenchmark.class.getSimpleName()).build()).run();
+    }
+}
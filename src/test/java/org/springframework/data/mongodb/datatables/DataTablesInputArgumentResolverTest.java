@@ -0,0 +1,167 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataTablesInputArgumentResolverTest {
+
+    private final DataTablesInputArgumentResolver resolver = new DataTablesInputArgumentResolver();
+
+    private DataTablesInput resolve(MockHttpServletRequest request) throws ServletRequestBindingException {
+        return resolver.resolveArgument(null, null, new ServletWebRequest(request), null);
+    }
+
+    private void assertInput(DataTablesInput input) {
+        assertThat(input.getDraw()).isEqualTo(2);
+        assertThat(input.getStart()).isEqualTo(10);
+        assertThat(input.getLength()).isEqualTo(5);
+        assertThat(input.getSearch().getValue()).isEqualTo("john");
+        assertThat(input.getSearch().isRegex()).isFalse();
+        assertThat(input.getColumns()).hasSize(2);
+        assertThat(input.getColumns().get(0).getData()).isEqualTo("id");
+        assertThat(input.getColumns().get(0).isSearchable()).isTrue();
+        assertThat(input.getColumns().get(0).isOrderable()).isFalse();
+        assertThat(input.getColumns().get(1).getData()).isEqualTo("label");
+        assertThat(input.getColumns().get(1).getName()).isEqualTo("name");
+        assertThat(input.getColumns().get(1).getSearch().getValue()).isEqualTo("^p");
+        assertThat(input.getColumns().get(1).getSearch().isRegex()).isTrue();
+        assertThat(input.getOrder()).containsExactly(new DataTablesInput.Order(1, DataTablesInput.Order.Direction.desc));
+    }
+
+    private MockHttpServletRequest createRequest(String format) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addParameter("draw", "2");
+        request.addParameter("start", "10");
+        request.addParameter("length", "5");
+        request.addParameter(String.format(format, "search", "value"), "john");
+        request.addParameter(String.format(format, "search", "regex"), "false");
+        request.addParameter(String.format(format, "columns[0]", "data"), "id");
+        request.addParameter(String.format(format, "columns[0]", "searchable"), "true");
+        request.addParameter(String.format(format, "columns[0]", "orderable"), "false");
+        request.addParameter(String.format(format, "columns[1]", "data"), "label");
+        request.addParameter(String.format(format, "columns[1]", "name"), "name");
+        request.addParameter(String.format(format, "columns[1]", "search") + String.format(format, "", "value"), "^p");
+        request.addParameter(String.format(format, "columns[1]", "search") + String.format(format, "", "regex"), "true");
+        request.addParameter(String.format(format, "order[0]", "column"), "1");
+        request.addParameter(String.format(format, "order[0]", "dir"), "desc");
+        request.addParameter("orderId", "12");
+        request.addParameter("_", "1588000000000");
+        return request;
+    }
+
+    @Test
+    public void nativeParameters() throws Exception {
+        assertInput(resolve(createRequest("%s[%s]")));
+    }
+
+    @Test
+    public void springFriendlyParameters() throws Exception {
+        assertInput(resolve(createRequest("%s.%s")));
+    }
+
+    @Test
+    public void jsonBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+        request.setContentType("application/json;charset=UTF-8");
+        request.setContent(("{\"draw\":2,\"start\":10,\"length\":5,\"search\":{\"value\":\"john\",\"regex\":false}," +
+                "\"columns\":[{\"data\":\"id\",\"name\":\"\",\"searchable\":true,\"orderable\":false," +
+                "\"search\":{\"value\":\"\",\"regex\":false}},{\"data\":\"label\",\"name\":\"name\",\"searchable\":true," +
+                "\"orderable\":true,\"search\":{\"value\":\"^p\",\"regex\":true}}]," +
+                "\"order\":[{\"column\":1,\"dir\":\"desc\"}],\"extra\":{\"nested\":[1,2]}}").getBytes(StandardCharsets.UTF_8));
+
+        assertInput(resolve(request));
+    }
+
+    @Test
+    public void defaults() throws Exception {
+        DataTablesInput input = resolve(new MockHttpServletRequest());
+        assertThat(input.getDraw()).isEqualTo(1);
+        assertThat(input.getLength()).isEqualTo(10);
+        assertThat(input.getSearch().getValue()).isEmpty();
+        assertThat(input.getColumns()).isEmpty();
+        assertThat(input.getOrder()).isEmpty();
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void orderColumnOutOfBounds() throws Exception {
+        MockHttpServletRequest request = createRequest("%s[%s]");
+        request.setParameter("order[0][column]", "2");
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void invalidLength() throws Exception {
+        MockHttpServletRequest request = createRequest("%s[%s]");
+        request.setParameter("length", "-2");
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void maxLength() throws Exception {
+        resolver.setMaxLength(100);
+        MockHttpServletRequest request = createRequest("%s[%s]");
+        request.setParameter("length", "-1");
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void maxColumns() throws Exception {
+        MockHttpServletRequest request = createRequest("%s[%s]");
+        request.setParameter("columns[100000000][data]", "id");
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void missingColumn() throws Exception {
+        MockHttpServletRequest request = createRequest("%s[%s]");
+        request.setParameter("columns[3][data]", "id");
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void malformedJson() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+        request.setContentType("application/json");
+        request.setContent("{\"columns\":{}}".getBytes(StandardCharsets.UTF_8));
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void missingColumnData() throws Exception {
+        MockHttpServletRequest request = createRequest("%s[%s]");
+        request.setParameter("columns[2][name]", "name");
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void blankColumnData() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+        request.setContentType("application/json");
+        request.setContent("{\"columns\":[{\"data\":\" \"}]}".getBytes(StandardCharsets.UTF_8));
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void malformedContentType() throws Exception {
+        MockHttpServletRequest request = createRequest("%s[%s]");
+        request.addHeader("Content-Type", "application");
+        resolve(request);
+    }
+
+    @Test(expected = ServletRequestBindingException.class)
+    public void maxJsonOrder() throws Exception {
+        resolver.setMaxColumns(2);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+        request.setContentType("application/json");
+        request.setContent(("{\"columns\":[{\"data\":\"id\"}],\"order\":[{\"column\":0,\"dir\":\"asc\"},{\"column\":0,\"dir\":\"asc\"}," +
+                "{\"column\":0,\"dir\":\"asc\"}]}").getBytes(StandardCharsets.UTF_8));
+        resolve(request);
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.springframework.data.mongodb.datatables;
+
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class DataTablesQueryRewriterTest {
+
+    private static String rewrite(Criteria... criteria) {
+        return DataTablesQueryRewriter.rewrite(Arrays.asList(criteria)).toJson();
+    }
+
+    @Test
+    public void sameField() {
+        assertThat(rewrite(where("a").gte(1), where("a").lte(2)))
+                .isEqualTo("{\"a\": {\"$gte\": 1, \"$lte\": 2}}");
+        assertThat(rewrite(where("a").is(2), where("a").in(1, 2)))
+                .isEqualTo("{\"a\": 2}");
+        assertThat(rewrite(where("a").is(1), where("a").is(1)))
+                .isEqualTo("{\"a\": 1}");
+        assertThat(rewrite(where("a").is(1), where("a").gt(0)))
+                .isEqualTo("{\"a\": 1, \"$and\": [{\"a\": {\"$gt\": 0}}]}");
+    }
+
+    @Test
+    public void sameArrayField() {
+        // {a: [1, 4]} matches both clauses, so they cannot be intersected
+        assertThat(rewrite(where("a").in(1, 2, 3), where("a").in(2, 3, 4)))
+                .isEqualTo("{\"a\": {\"$in\": [1, 2, 3]}, \"$and\": [{\"a\": {\"$in\": [2, 3, 4]}}]}");
+        assertThat(rewrite(where("a").in(1, 2), where("a").in(3)))
+                .isEqualTo("{\"a\": {\"$in\": [1, 2]}, \"$and\": [{\"a\": {\"$in\": [3]}}]}");
+        assertThat(rewrite(where("a").in(1, 2), where("a").is(3)))
+                .isEqualTo("{\"a\": {\"$in\": [1, 2]}, \"$and\": [{\"a\": 3}]}");
+        assertThat(rewrite(where("a").gt(1), where("a").gt(2)))
+                .isEqualTo("{\"a\": {\"$gt\": 1}, \"$and\": [{\"a\": {\"$gt\": 2}}]}");
+    }
+
+    @Test
+    public void sameTopLevelOperator() {
+        Criteria first = where("$expr").is(new Document("$gt", Arrays.asList("$a", "$b")));
+        Criteria second = where("$expr").is(new Document("$lt", Arrays.asList("$a", "$c")));
+        assertThat(rewrite(first, second))
+                .isEqualTo("{\"$expr\": {\"$gt\": [\"$a\", \"$b\"]}, \"$and\": [{\"$expr\": {\"$lt\": [\"$a\", \"$c\"]}}]}");
+        assertThat(rewrite(first, first))
+                .isEqualTo("{\"$expr\": {\"$gt\": [\"$a\", \"$b\"]}}");
+    }
+
+    @Test
+    public void nestedConjunctions() {
+        assertThat(rewrite(new Criteria().andOperator(where("a").is(1), new Criteria().andOperator(where("b").is(2))), new Criteria()))
+                .isEqualTo("{\"a\": 1, \"b\": 2}");
+    }
+
+    @Test
+    public void literalRegex() {
+        assertThat(rewrite(where("a").regex("^abc\\.d$")))
+                .isEqualTo("{\"a\": \"abc.d\"}");
+        assertThat(rewrite(where("a").regex("^(abc|def)$")))
+                .isEqualTo("{\"a\": {\"$in\": [\"abc\", \"def\"]}}");
+        assertThat(rewrite(where("a").regex("^abc$", "i")))
+                .isEqualTo("{\"a\": {\"$regex\": \"^abc$\", \"$options\": \"i\"}}");
+        assertThat(rewrite(where("a").regex("^ab.c$")))
+                .isEqualTo("{\"a\": {\"$regex\": \"^ab.c$\", \"$options\": \"\"}}");
+        assertThat(rewrite(where("a").regex("^(abc|d+)$")))
+                .isEqualTo("{\"a\": {\"$regex\": \"^(abc|d+)$\", \"$options\": \"\"}}");
+    }
+
+    @Test
+    public void disjunctions() {
+        assertThat(rewrite(new Criteria().orOperator(where("a").is(1), where("a").in(2, 3))))
+                .isEqualTo("{\"a\": {\"$in\": [1, 2, 3]}}");
+        assertThat(rewrite(new Criteria().orOperator(where("a").is(1), new Criteria())))
+                .isEqualTo("{}");
+        assertThat(rewrite(new Criteria().orOperator(where("a").regex("x", "i"))))
+                .isEqualTo("{\"a\": {\"$regex\": \"x\", \"$options\": \"i\"}}");
+        assertThat(rewrite(new Criteria().orOperator(where("a").is(1), where("b").is(2))))
+                .isEqualTo("{\"$or\": [{\"a\": 1}, {\"b\": 2}]}");
+        assertThat(rewrite(new Criteria().orOperator(), where("a").is(1)))
+                .isEqualTo("{\"a\": 1, \"$or\": []}");
+    }
+
+    @Test
+    public void impliedDisjunction() {
+        Criteria globalSearch = new Criteria().orOperator(where("a").regex("x", "i"), where("b").regex("x", "i"));
+        assertThat(rewrite(globalSearch, where("a").regex("x", "i")))
+                .isEqualTo("{\"a\": {\"$regex\": \"x\", \"$options\": \"i\"}}");
+    }
+
+    @Test
+    public void order() {
+        assertThat(rewrite(new Criteria().orOperator(where("a").is(1), where("b").is(2)), where("c").regex("x", "i"),
+                where("d").gt(1), where("e").in(1, 2), where("f").is(true)))
+                .isEqualTo("{\"f\": true, \"e\": {\"$in\": [1, 2]}, \"d\": {\"$gt\": 1}, "
+                        + "\"c\": {\"$regex\": \"x\", \"$options\": \"i\"}, \"$or\": [{\"a\": 1}, {\"b\": 2}]}");
+    }
+}
@@ -0,0 +1,161 @@
+package org.springframework.data.mongodb.datatables;
+
+import com.mongodb.MongoClient;
+import com.mongodb.ReadConcern;
+import com.mongodb.ReadPreference;
+import com.mongodb.Tag;
+import com.mongodb.TagSet;
+import com.mongodb.client.MongoCollection;
+import org.junit.Test;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.AopTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DataTablesReadSettingsTest {
+
+    private final MongoTemplate mongoTemplate = new MongoTemplate(new MongoClient("localhost"), "test");
+
+    @Test
+    public void defaultSettings() {
+        DataTablesReadSettings.Phase phase = new DataTablesReadSettings.Phase();
+        assertThat(phase.apply(mongoTemplate, null)).isSameAs(mongoTemplate);
+    }
+
+    @Test
+    public void readConcern() {
+        DataTablesReadSettings.Phase phase = new DataTablesReadSettings.Phase();
+        phase.setReadConcern(ReadConcern.MAJORITY);
+        MongoTemplate phaseTemplate = (MongoTemplate) phase.apply(mongoTemplate, null);
+        assertThat(phaseTemplate).isNotSameAs(mongoTemplate);
+        assertThat(phaseTemplate.getMongoDbFactory()).isSameAs(mongoTemplate.getMongoDbFactory());
+        ReadConcern readConcern = phaseTemplate.execute("product", MongoCollection::getReadConcern);
+        assertThat(readConcern).isEqualTo(ReadConcern.MAJORITY);
+    }
+
+    @Test
+    public void maxStaleness() {
+        DataTablesReadSettings.Phase phase = new DataTablesReadSettings.Phase();
+        phase.setReadPreference(ReadPreference.secondary(new TagSet(new Tag("dc", "east"))));
+        phase.setMaxStalenessSeconds(120L);
+        MongoTemplate phaseTemplate = (MongoTemplate) phase.apply(mongoTemplate, null);
+        ReadPreference readPreference = phaseTemplate.execute("product", MongoCollection::getReadPreference);
+        assertThat(readPreference).isEqualTo(ReadPreference.secondary(new TagSet(new Tag("dc", "east")), 120, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void maxStalenessWithPrimary() {
+        DataTablesReadSettings.Phase phase = new DataTablesReadSettings.Phase();
+        phase.setReadPreference(ReadPreference.primary());
+        phase.setMaxStalenessSeconds(120L);
+        assertThatThrownBy(() -> phase.apply(mongoTemplate, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void templateSettings() {
+        MongoTemplate baseTemplate = new MongoTemplate(new MongoClient("localhost"), "test");
+        baseTemplate.setReadPreference(ReadPreference.secondaryPreferred());
+
+        DataTablesReadSettings.Phase phase = new DataTablesReadSettings.Phase();
+        phase.setReadConcern(ReadConcern.MAJORITY);
+        MongoTemplate phaseTemplate = (MongoTemplate) phase.apply(baseTemplate, null);
+        ReadPreference readPreference = phaseTemplate.execute("product", MongoCollection::getReadPreference);
+        assertThat(readPreference).isEqualTo(ReadPreference.secondaryPreferred());
+
+        phase.setMaxStalenessSeconds(120L);
+        phaseTemplate = (MongoTemplate) phase.apply(baseTemplate, null);
+        readPreference = phaseTemplate.execute("product", MongoCollection::getReadPreference);
+        assertThat(readPreference).isEqualTo(ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void repositoryFactory() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(TestConfiguration.class, ReadSettingsConfiguration.class)) {
+            MongoTemplate mongoTemplate = context.getBean(MongoTemplate.class);
+            DirectFieldAccessor repository = new DirectFieldAccessor(
+                    AopTestUtils.getUltimateTargetObject(context.getBean(ProductRepository.class)));
+
+            MongoTemplate totalCountOperations = (MongoTemplate) repository.getPropertyValue("totalCountOperations");
+            assertThat(totalCountOperations).isNotSameAs(mongoTemplate);
+            ReadPreference readPreference = totalCountOperations.execute("product", MongoCollection::getReadPreference);
+            assertThat(readPreference).isEqualTo(ReadPreference.secondaryPreferred());
+            assertThat(repository.getPropertyValue("filteredCountOperations")).isNotSameAs(mongoTemplate);
+            assertThat(repository.getPropertyValue("dataOperations")).isSameAs(mongoTemplate);
+        }
+    }
+
+    @Test
+    public void readOperations() {
+        mongoTemplate.save(Product.PRODUCT1);
+        DataTablesRepositoryImpl<Product, Long> repository = new DataTablesRepositoryImpl<>(
+                new MongoRepositoryFactory(mongoTemplate).getEntityInformation(Product.class), mongoTemplate);
+        CountingMongoTemplate totalCountOperations = new CountingMongoTemplate(mongoTemplate);
+        CountingMongoTemplate filteredCountOperations = new CountingMongoTemplate(mongoTemplate);
+        CountingMongoTemplate dataOperations = new CountingMongoTemplate(mongoTemplate);
+        repository.setReadOperations(totalCountOperations, filteredCountOperations, dataOperations);
+
+        DataTablesInput input = new DataTablesInput();
+        input.setColumns(singletonList(new DataTablesInput.Column()));
+        input.getColumns().get(0).setData("label");
+        input.getColumns().get(0).setSearch(new DataTablesInput.Search("", false));
+        input.setSearch(new DataTablesInput.Search("", false));
+
+        DataTablesOutput<Product> output = repository.findAll(input);
+        assertThat(output.getError()).isNull();
+        assertThat(totalCountOperations.reads).hasValue(1);
+        assertThat(filteredCountOperations.reads).hasValue(1);
+        assertThat(dataOperations.reads).hasValue(1);
+
+        // the identical count queries of a batch are only shared by the same operations
+        repository.findAllBatch(singletonList(new DataTablesBatchEntry(input)), Runnable::run);
+        assertThat(totalCountOperations.reads).hasValue(2);
+        assertThat(filteredCountOperations.reads).hasValue(2);
+        assertThat(dataOperations.reads).hasValue(2);
+    }
+
+    @Configuration
+    static class ReadSettingsConfiguration {
+
+        @Bean
+        public DataTablesReadSettings readSettings() {
+            DataTablesReadSettings settings = new DataTablesReadSettings();
+            settings.getTotalCount().setReadPreference(ReadPreference.secondaryPreferred());
+            settings.getFilteredCount().setReadConcern(ReadConcern.LOCAL);
+            return settings;
+        }
+    }
+
+    private static final class CountingMongoTemplate extends MongoTemplate {
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        CountingMongoTemplate(MongoTemplate mongoTemplate) {
+            super(mongoTemplate.getMongoDbFactory(), mongoTemplate.getConverter());
+        }
+
+        @Override
+        public long count(Query query, String collectionName) {
+            reads.incrementAndGet();
+            return super.count(query, collectionName);
+        }
+
+        @Override
+        public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+            reads.incrementAndGet();
+            return super.find(query, entityClass, collectionName);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Document
+@DataTablesSearchIndex(fields = {"label", "characteristics.value"}, enabled = true)
 @Data
 @Builder
 class Product {
@@ -1,16 +1,37 @@
 package org.springframework.data.mongodb.datatables;
 
+import org.bson.Document;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.lookup;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
 import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -20,12 +41,22 @@ public class ProductRepositoryTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Before
     public void init() {
         productRepository.deleteAll();
         productRepository.save(Product.PRODUCT1);
         productRepository.save(Product.PRODUCT2);
         productRepository.save(Product.PRODUCT3);
+
+        mongoTemplate.dropCollection("productLabel");
+        mongoTemplate.insert(new Document("_id", "product1").append("value", "produit un"), "productLabel");
+        mongoTemplate.insert(new Document("_id", "product2").append("value", "produit deux"), "productLabel");
+
+        mongoTemplate.dropCollection("productView");
+        mongoTemplate.dropCollection(DataTablesMaterializedView.STATE_COLLECTION_NAME);
     }
 
     private DataTablesInput getDefaultInput() {
@@ -43,6 +74,62 @@ public class ProductRepositoryTest {
         return input;
     }
 
+    private DataTablesInput getAggregationInput() {
+        DataTablesInput input = getDefaultInput();
+        List<DataTablesInput.Column> columns = new ArrayList<>(input.getColumns());
+        columns.add(createColumn("translation", true, true));
+        input.setColumns(columns);
+        return input;
+    }
+
+    private DataTablesInput getSearchIndexInput() {
+        DataTablesInput input = getDefaultInput();
+        input.getColumns().forEach(column -> column.setSearchable(
+                column.getData().equals("label") || column.getData().equals("characteristics.value")));
+        return input;
+    }
+
+    private List<AggregationOperation> getPipeline() {
+        return asList(
+                lookup("productLabel", "label", "_id", "labels"),
+                unwind("labels", true),
+                context -> new Document("$addFields", new Document("translation", "$labels.value"))
+        );
+    }
+
+    /**
+     * Returns the input sent by DataTables for a table whose columns are declared with a name and without data.
+     */
+    private DataTablesInput getArraysInput() {
+        DataTablesInput input = getDefaultInput();
+        for (int i = 0; i < input.getColumns().size(); i++) {
+            DataTablesInput.Column column = input.getColumns().get(i);
+            column.setName(column.getData());
+            column.setData(String.valueOf(i));
+        }
+        return input;
+    }
+
+    private List<DataTablesBatchEntry> getBatchEntries() {
+        DataTablesInput filteredInput = getDefaultInput();
+        filteredInput.setDraw(2);
+        filteredInput.getColumn("label").ifPresent(column ->
+                column.setSearch(new DataTablesInput.Search("product2", false)));
+
+        DataTablesInput emptyInput = getDefaultInput();
+        emptyInput.setLength(0);
+
+        return asList(
+                new DataTablesBatchEntry(getDefaultInput()),
+                new DataTablesBatchEntry(filteredInput, null, where("characteristics.key").is("key1")),
+                new DataTablesBatchEntry(emptyInput)
+        );
+    }
+
+    private DataTablesMaterializedView getMaterializedView() {
+        return new DataTablesMaterializedView(mongoTemplate, Product.class, getPipeline(), "productView", "createdAt");
+    }
+
     private DataTablesInput.Column createColumn(String columnName, boolean orderable, boolean searchable) {
         DataTablesInput.Column column = new DataTablesInput.Column();
         column.setData(columnName);
@@ -180,6 +267,74 @@ public class ProductRepositoryTest {
         assertThat(output.getData()).containsOnly("product1", "product2", "product3");
     }
 
+    @Test
+    public void arrays() {
+        DataTablesInput input = getArraysInput();
+        input.setOrder(singletonList(new DataTablesInput.Order(0, DataTablesInput.Order.Direction.desc)));
+        input.setLength(-1);
+
+        DataTablesOutput<Object[]> output = productRepository.findAllAsArrays(input);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getRecordsFiltered()).isEqualTo(3);
+        assertThat(output.getData()).hasSize(3);
+        // the raw values are returned, without the custom converters (a Date instead of a LocalDateTime)
+        assertThat(output.getData().get(0)).containsExactly(
+                3L, "product3", false, toDate(Product.PRODUCT3.getCreatedAt()), singletonList("key2"), singletonList("val23"), null);
+        assertThat(output.getData().get(0)[3]).isExactlyInstanceOf(Date.class);
+        assertThat(output.getData().get(2)).containsExactly(
+                1L, "product1", true, toDate(Product.PRODUCT1.getCreatedAt()), asList("key1", "key2"), asList("val11", "val21"), null);
+    }
+
+    @Test
+    public void arraysSearchedByName() {
+        DataTablesInput input = getArraysInput();
+        input.getColumns().get(0).setSearchable(false);
+        input.getColumns().get(4).setSearch(new DataTablesInput.Search("key1", false));
+        input.setOrder(singletonList(new DataTablesInput.Order(1, DataTablesInput.Order.Direction.desc)));
+
+        DataTablesOutput<Object[]> output = productRepository.findAllAsArrays(input);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getRecordsFiltered()).isEqualTo(2);
+        assertThat(output.getData()).extracting(row -> row[1]).containsExactly("product2", "product1");
+
+        input.setSearch(new DataTablesInput.Search("product2", false));
+        output = productRepository.findAllAsArrays(input);
+        assertThat(output.getRecordsFiltered()).isEqualTo(1);
+        assertThat(output.getData()).extracting(row -> row[1]).containsExactly("product2");
+    }
+
+    @Test
+    public void arraysNestedFields() {
+        DataTablesInput input = getArraysInput();
+        input.getColumns().get(5).setName("characteristics");
+        input.setOrder(singletonList(new DataTablesInput.Order(0, DataTablesInput.Order.Direction.asc)));
+
+        assertThat(new DataTablesArrays(input, mongoTemplate.getConverter(), Product.class).toProjection())
+                .containsOnlyKeys("_id", "label", "isEnabled", "createdAt", "characteristics", "unknown");
+
+        DataTablesOutput<Object[]> output = productRepository.findAllAsArrays(input);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getData().get(0)[4]).isEqualTo(asList("key1", "key2"));
+        assertThat(output.getData().get(0)[5]).asList().hasSize(2);
+    }
+
+    private static Date toDate(LocalDateTime localDateTime) {
+        return Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    public void arraysFiltered() {
+        DataTablesInput input = getDefaultInput();
+        input.getColumn("id").ifPresent(column -> column.setSearchable(false));
+        input.setSearch(new DataTablesInput.Search("product2", false));
+
+        DataTablesOutput<Object[]> output = productRepository.findAllAsArrays(input, null, where("isEnabled").is(true));
+        assertThat(output.getRecordsTotal()).isEqualTo(2);
+        assertThat(output.getRecordsFiltered()).isEqualTo(1);
+        assertThat(output.getData()).hasSize(1);
+        assertThat(output.getData().get(0)[1]).isEqualTo("product2");
+    }
+
     @Test
     public void additionalCriteria() {
         Criteria criteria = where("label").in("product1", "product2");
@@ -200,6 +355,31 @@ public class ProductRepositoryTest {
         assertThat(output.getData()).containsOnly(Product.PRODUCT2, Product.PRODUCT3);
     }
 
+    @Test
+    public void sameFieldInSeveralCriteria() {
+        DataTablesInput input = getDefaultInput();
+        input.getColumn("label").ifPresent(column ->
+                column.setSearch(new DataTablesInput.Search("^product(2|3)$", true)));
+
+        DataTablesOutput<Product> output = productRepository.findAll(input, where("label").ne("product3"),
+                where("label").in("product1", "product2"));
+        assertThat(output.getError()).isNull();
+        assertThat(output.getRecordsFiltered()).isEqualTo(1);
+        assertThat(output.getRecordsTotal()).isEqualTo(2);
+        assertThat(output.getData()).containsOnly(Product.PRODUCT2);
+    }
+
+    @Test
+    public void sameArrayFieldInSeveralCriteria() {
+        // PRODUCT1 has both keys, in two different elements of the array
+        DataTablesOutput<Product> output = productRepository.findAll(getDefaultInput(),
+                where("characteristics.key").in("key2"), where("characteristics.key").in("key1"));
+        assertThat(output.getError()).isNull();
+        assertThat(output.getRecordsFiltered()).isEqualTo(1);
+        assertThat(output.getRecordsTotal()).isEqualTo(2);
+        assertThat(output.getData()).containsOnly(Product.PRODUCT1);
+    }
+
     @Test
     public void columnNotSearchable() {
         DataTablesInput input = getDefaultInput();
@@ -223,4 +403,443 @@ public class ProductRepositoryTest {
         assertThat(output.getData()).containsSequence(Product.PRODUCT1, Product.PRODUCT2, Product.PRODUCT3);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void aggregation() {
+        DataTablesOutput<Document> output = productRepository.findAll(getAggregationInput(), getPipeline(), Document.class);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getRecordsFiltered()).isEqualTo(3);
+        assertThat(output.getRecordsTotal()).isEqualTo(3);
+        assertThat(output.getData()).extracting(document -> document.get("translation"))
+                .containsOnly("produit un", "produit deux", null);
+    }
+
+    @Test
+    public void aggregationJoinedColumnFilter() {
+        DataTablesInput input = getAggregationInput();
+        input.getColumn("translation").ifPresent(column ->
+                column.setSearch(new DataTablesInput.Search("DEUX", false)));
+
+        DataTablesOutput<Document> output = productRepository.findAll(input, getPipeline(), Document.class);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getRecordsFiltered()).isEqualTo(1);
+        assertThat(output.getRecordsTotal()).isEqualTo(3);
+        assertThat(output.getData()).extracting(document -> document.get("label")).containsOnly("product2");
+    }
+
+    @Test
+    public void aggregationJoinedColumnSort() {
+        DataTablesInput input = getAggregationInput();
+        input.setOrder(singletonList(new DataTablesInput.Order(7, DataTablesInput.Order.Direction.desc)));
+        input.setLength(2);
+
+        DataTablesOutput<Document> output = productRepository.findAll(input, getPipeline(), Document.class);
+        assertThat(output.getRecordsFiltered()).isEqualTo(3);
+        assertThat(output.getData()).extracting(document -> document.get("label"))
+                .containsExactly("product1", "product2");
+    }
+
+    @Test
+    public void aggregationPreFilteringCriteria() {
+        DataTablesInput input = getAggregationInput();
+        input.setOrder(singletonList(new DataTablesInput.Order(3, DataTablesInput.Order.Direction.asc)));
+        Criteria criteria = where("label").in("product2", "product3");
+
+        DataTablesOutput<Document> output = productRepository.findAll(input, getPipeline(), null, criteria, Document.class);
+        assertThat(output.getRecordsFiltered()).isEqualTo(2);
+        assertThat(output.getRecordsTotal()).isEqualTo(2);
+        assertThat(output.getData()).extracting(document -> document.get("translation"))
+                .containsExactly(null, "produit deux");
+    }
+
+    @Test
+    public void searchIndex() {
+        Document document = mongoTemplate.findById(2L, Document.class, "product");
+        assertThat(document.get("_searchTokens", List.class))
+                .containsOnly("pro", "rod", "odu", "duc", "uct", "ct2", "val", "al1", "l12");
+
+        DataTablesInput input = getSearchIndexInput();
+        input.setSearch(new DataTablesInput.Search(" UCT2 ", false));
+
+        DataTablesOutput<Product> output = productRepository.findAll(input);
+        assertThat(output.getRecordsFiltered()).isEqualTo(1);
+        assertThat(output.getData()).containsOnly(Product.PRODUCT2);
+    }
+
+    @Test
+    public void searchIndexRegexCharacters() {
+        DataTablesInput input = getSearchIndexInput();
+        input.setSearch(new DataTablesInput.Search("product1|product2", false));
+
+        DataTablesOutput<Product> output = productRepository.findAll(input);
+        assertThat(output.getData()).containsOnly(Product.PRODUCT1, Product.PRODUCT2);
+
+        input.setSearch(new DataTablesInput.Search("productX?1", false));
+
+        output = productRepository.findAll(input);
+        assertThat(output.getData()).containsOnly(Product.PRODUCT1);
+    }
+
+    @Test
+    public void searchIndexNoSearchableColumn() {
+        DataTablesInput input = getSearchIndexInput();
+        input.getColumns().forEach(column -> column.setSearchable(false));
+        input.setSearch(new DataTablesInput.Search("unknown", false));
+
+        DataTablesOutput<Product> output = productRepository.findAll(input);
+        assertThat(output.getData()).containsOnly(Product.PRODUCT1, Product.PRODUCT2, Product.PRODUCT3);
+    }
+
+    @Test
+    public void searchIndexBackfill() {
+        mongoTemplate.updateMulti(new Query(), new Update().unset("_searchTokens"), Product.class);
+
+        DataTablesSearchIndexer indexer = new DataTablesSearchIndexer(mongoTemplate, 2);
+        indexer.ensureIndex(Product.class);
+        assertThat(indexer.backfill(Product.class)).isEqualTo(3);
+
+        DataTablesInput input = getSearchIndexInput();
+        input.setSearch(new DataTablesInput.Search("val23", false));
+
+        DataTablesOutput<Product> output = productRepository.findAll(input);
+        assertThat(output.getData()).containsOnly(Product.PRODUCT3);
+    }
+
+    @Test
+    public void materializedView() {
+        DataTablesMaterializedView view = getMaterializedView();
+        view.refresh();
+
+        DataTablesInput input = getAggregationInput();
+        input.getColumn("translation").ifPresent(column ->
+                column.setSearch(new DataTablesInput.Search("produit", false)));
+
+        DataTablesOutput<Document> output = productRepository.findAll(input, view, Document.class);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getRefreshedAt()).isNotNull();
+        assertThat(output.getRecordsTotal()).isEqualTo(3);
+        assertThat(output.getRecordsFiltered()).isEqualTo(2);
+        assertThat(output.getData()).extracting(document -> document.get("label"))
+                .containsOnly("product1", "product2");
+    }
+
+    @Test
+    public void materializedViewIncrementalRefresh() {
+        DataTablesMaterializedView view = getMaterializedView();
+        view.refresh();
+
+        mongoTemplate.insert(new Document("_id", "product3").append("value", "produit trois"), "productLabel");
+        mongoTemplate.updateFirst(Query.query(where("id").is(3)),
+                Update.update("createdAt", Product.PRODUCT2.getCreatedAt().plusHours(1)), Product.class);
+
+        view.refresh();
+
+        DataTablesOutput<Document> output = productRepository.findAll(getAggregationInput(), view, Document.class);
+        assertThat(output.getRecordsTotal()).isEqualTo(3);
+        assertThat(output.getData()).extracting(document -> document.get("translation"))
+                .containsOnly("produit un", "produit deux", "produit trois");
+    }
+
+    @Test
+    public void materializedViewSameHighWaterMark() {
+        DataTablesMaterializedView view = getMaterializedView();
+        view.refresh();
+
+        // written after the refresh, with the same high-water mark as the latest document
+        mongoTemplate.insert(new Document("_id", "product3").append("value", "produit trois"), "productLabel");
+        mongoTemplate.updateFirst(Query.query(where("id").is(3)),
+                Update.update("createdAt", Product.PRODUCT2.getCreatedAt()), Product.class);
+
+        view.refresh();
+
+        DataTablesOutput<Document> output = productRepository.findAll(getAggregationInput(), view, Document.class);
+        assertThat(output.getData()).extracting(document -> document.get("translation"))
+                .containsOnly("produit un", "produit deux", "produit trois");
+    }
+
+    @Test
+    public void materializedViewRefreshFrom() {
+        DataTablesMaterializedView view = getMaterializedView();
+        view.refresh();
+
+        // committed after the refresh, with an earlier high-water mark
+        mongoTemplate.insert(new Document("_id", "product3").append("value", "produit trois"), "productLabel");
+        mongoTemplate.updateFirst(Query.query(where("id").is(3)),
+                Update.update("createdAt", Product.PRODUCT2.getCreatedAt().minusSeconds(1)), Product.class);
+
+        view.refresh();
+        view.refresh(Product.PRODUCT2.getCreatedAt().minusMinutes(1));
+
+        DataTablesOutput<Document> output = productRepository.findAll(getAggregationInput(), view, Document.class);
+        assertThat(output.getData()).extracting(document -> document.get("translation"))
+                .containsOnly("produit un", "produit deux", "produit trois");
+    }
+
+    @Test
+    public void materializedViewRefreshedAt() throws InterruptedException {
+        DataTablesMaterializedView view = getMaterializedView();
+        assertThat(view.getRefreshedAt()).isNull();
+        view.refresh();
+        Date refreshedAt = view.getRefreshedAt();
+        assertThat(refreshedAt).isNotNull();
+
+        // a refresh by another node is seen by this view
+        Thread.sleep(10);
+        DataTablesMaterializedView otherView = getMaterializedView();
+        otherView.refresh();
+        assertThat(view.getRefreshedAt()).isAfter(refreshedAt).isEqualTo(otherView.getRefreshedAt());
+    }
+
+    private void assertBatchOutputs(List<DataTablesOutput<Product>> outputs) {
+        assertThat(outputs).hasSize(3);
+        assertThat(outputs.get(0).getError()).isNull();
+        assertThat(outputs.get(0).getRecordsTotal()).isEqualTo(3);
+        assertThat(outputs.get(0).getRecordsFiltered()).isEqualTo(3);
+        assertThat(outputs.get(0).getData()).containsOnly(Product.PRODUCT1, Product.PRODUCT2, Product.PRODUCT3);
+        assertThat(outputs.get(1).getDraw()).isEqualTo(2);
+        assertThat(outputs.get(1).getRecordsTotal()).isEqualTo(2);
+        assertThat(outputs.get(1).getRecordsFiltered()).isEqualTo(1);
+        assertThat(outputs.get(1).getData()).containsOnly(Product.PRODUCT2);
+        assertThat(outputs.get(2).getRecordsTotal()).isEqualTo(0);
+        assertThat(outputs.get(2).getData()).isEmpty();
+    }
+
+    @Test
+    public void batch() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertBatchOutputs(productRepository.findAllBatch(getBatchEntries(), executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void batchError() {
+        DataTablesInput input = getDefaultInput();
+        input.setSearch(new DataTablesInput.Search("(", true));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<DataTablesOutput<Product>> outputs = productRepository.findAllBatch(
+                    asList(new DataTablesBatchEntry(input), new DataTablesBatchEntry(getDefaultInput())), executor);
+            assertThat(outputs.get(0).getError()).isNotNull();
+            assertThat(outputs.get(1).getError()).isNull();
+            assertThat(outputs.get(1).getRecordsTotal()).isEqualTo(3);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void batchWithFacet() {
+        assertBatchOutputs(productRepository.findAllBatchWithFacet(getBatchEntries()));
+    }
+
+    @Test
+    public void batchWithLocalDateTimePreFilteringCriteria() {
+        DataTablesInput filteredInput = getDefaultInput();
+        filteredInput.getColumn("label").ifPresent(column ->
+                column.setSearch(new DataTablesInput.Search("product2", false)));
+        Criteria preFilteringCriteria = where("createdAt").gt(Product.PRODUCT3.getCreatedAt());
+        List<DataTablesBatchEntry> entries = asList(
+                new DataTablesBatchEntry(getDefaultInput(), null, preFilteringCriteria),
+                new DataTablesBatchEntry(filteredInput, null, preFilteringCriteria)
+        );
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertLocalDateTimeBatchOutputs(productRepository.findAllBatch(entries, executor));
+        } finally {
+            executor.shutdown();
+        }
+        assertLocalDateTimeBatchOutputs(productRepository.findAllBatchWithFacet(entries));
+    }
+
+    private void assertLocalDateTimeBatchOutputs(List<DataTablesOutput<Product>> outputs) {
+        assertThat(outputs.get(0).getError()).isNull();
+        assertThat(outputs.get(0).getRecordsTotal()).isEqualTo(2);
+        assertThat(outputs.get(0).getData()).containsOnly(Product.PRODUCT1, Product.PRODUCT2);
+        assertThat(outputs.get(1).getError()).isNull();
+        assertThat(outputs.get(1).getRecordsTotal()).isEqualTo(2);
+        assertThat(outputs.get(1).getRecordsFiltered()).isEqualTo(1);
+        assertThat(outputs.get(1).getData()).containsOnly(Product.PRODUCT2);
+    }
+
+    @Test
+    public void editorCreate() {
+        productRepository.deleteById(3L);
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", "3");
+        fields.put("label", "product3 created");
+        fields.put("isEnabled", "true");
+        fields.put("createdAt", "2020-04-01T10:00:00");
+
+        DataTablesEditorOutput<Product> output = productRepository.edit(getEditorInput(DataTablesEditorInput.Action.create, singletonMap("0", fields)));
+        assertThat(output.getError()).isNull();
+        assertThat(output.getFieldErrors()).isEmpty();
+        assertThat(output.getData()).extracting(Product::getId, Product::getLabel, Product::isEnabled, Product::getCreatedAt)
+                .containsExactly(tuple(3L, "product3 created", true, LocalDateTime.of(2020, 4, 1, 10, 0)));
+        assertThat(productRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    public void editorEdit() {
+        Map<String, Map<String, Object>> data = new LinkedHashMap<>();
+        data.put("1", singletonMap("label", "product1 edited"));
+        data.put("3", singletonMap("isEnabled", true));
+
+        DataTablesEditorOutput<Product> output = productRepository.edit(getEditorInput(DataTablesEditorInput.Action.edit, data), BulkOperations.BulkMode.UNORDERED);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getData()).extracting(Product::getId, Product::getLabel, Product::isEnabled)
+                .containsExactly(tuple(1L, "product1 edited", true), tuple(3L, "product3", true));
+        assertThat(productRepository.findById(1L)).get().extracting(Product::getCharacteristics)
+                .isEqualTo(Product.PRODUCT1.getCharacteristics());
+    }
+
+    @Test
+    public void editorEditSearchTokens() {
+        DataTablesEditorOutput<Product> output = productRepository.edit(getEditorInput(DataTablesEditorInput.Action.edit,
+                singletonMap("1", singletonMap("label", "gadget"))));
+        assertThat(output.getError()).isNull();
+
+        DataTablesInput input = getSearchIndexInput();
+        input.setSearch(new DataTablesInput.Search("gadget", false));
+        assertThat(productRepository.findAll(input).getData()).extracting(Product::getId).containsOnly(1L);
+
+        input.setSearch(new DataTablesInput.Search("product1", false));
+        assertThat(productRepository.findAll(input).getData()).isEmpty();
+
+        input.setSearch(new DataTablesInput.Search("val21", false));
+        assertThat(productRepository.findAll(input).getData()).extracting(Product::getId).containsOnly(1L);
+    }
+
+    private DataTablesEditor<VersionedProduct> getVersionedEditor() {
+        return new DataTablesEditor<>(mongoTemplate, VersionedProduct.class,
+                mongoTemplate.getCollectionName(VersionedProduct.class));
+    }
+
+    @Test
+    public void editorEditAuditingProperties() {
+        mongoTemplate.dropCollection(VersionedProduct.class);
+        LocalDateTime lastModifiedDate = LocalDateTime.of(2020, 4, 1, 10, 0);
+        mongoTemplate.insert(new VersionedProduct(1L, "product1", 0L, lastModifiedDate));
+
+        DataTablesEditorOutput<VersionedProduct> output = getVersionedEditor().apply(getEditorInput(DataTablesEditorInput.Action.edit,
+                singletonMap("1", singletonMap("label", "product1 edited"))), BulkOperations.BulkMode.ORDERED);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getData()).hasSize(1);
+        assertThat(output.getData().get(0).getLabel()).isEqualTo("product1 edited");
+        // the version is only checked and incremented when it is submitted
+        assertThat(output.getData().get(0).getVersion()).isEqualTo(0L);
+        assertThat(output.getData().get(0).getLastModifiedDate()).isAfter(lastModifiedDate);
+    }
+
+    @Test
+    public void editorEditOptimisticLocking() {
+        mongoTemplate.dropCollection(VersionedProduct.class);
+        mongoTemplate.insert(new VersionedProduct(1L, "product1", 0L, LocalDateTime.of(2020, 4, 1, 10, 0)));
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", "1");
+        fields.put("label", "product1 edited");
+        fields.put("version", "0");
+        DataTablesEditorOutput<VersionedProduct> output = getVersionedEditor().apply(getEditorInput(DataTablesEditorInput.Action.edit,
+                singletonMap("1", fields)), BulkOperations.BulkMode.ORDERED);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getFieldErrors()).isEmpty();
+        assertThat(output.getData()).extracting(VersionedProduct::getLabel, VersionedProduct::getVersion)
+                .containsExactly(tuple("product1 edited", 1L));
+
+        // the same version is submitted again, by a user who did not see the first edit
+        fields.put("label", "product1 overwritten");
+        output = getVersionedEditor().apply(getEditorInput(DataTablesEditorInput.Action.edit,
+                singletonMap("1", fields)), BulkOperations.BulkMode.ORDERED);
+        assertThat(output.getError()).isEqualTo("1: The row has been modified by another user");
+        assertThat(output.getData()).extracting(VersionedProduct::getLabel, VersionedProduct::getVersion)
+                .containsExactly(tuple("product1 edited", 1L));
+
+        fields.put("id", "2");
+        output = getVersionedEditor().apply(getEditorInput(DataTablesEditorInput.Action.edit,
+                singletonMap("1", fields)), BulkOperations.BulkMode.ORDERED);
+        assertThat(output.getFieldErrors()).extracting(DataTablesEditorOutput.FieldError::getName).containsExactly("id");
+    }
+
+    @Test
+    public void editorCreateVersioned() {
+        mongoTemplate.dropCollection(VersionedProduct.class);
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", "1");
+        fields.put("label", "product1");
+
+        DataTablesEditorOutput<VersionedProduct> output = getVersionedEditor().apply(getEditorInput(DataTablesEditorInput.Action.create,
+                singletonMap("0", fields)), BulkOperations.BulkMode.ORDERED);
+        assertThat(output.getError()).isNull();
+        assertThat(output.getData()).hasSize(1);
+        VersionedProduct created = output.getData().get(0);
+        assertThat(created.getVersion()).isEqualTo(0L);
+        assertThat(created.getLastModifiedDate()).isNotNull();
+
+        // a versioned entity is saved with an update, not inserted again
+        created.setLabel("product1 saved");
+        mongoTemplate.save(created);
+        assertThat(mongoTemplate.findById(1L, VersionedProduct.class))
+                .extracting(VersionedProduct::getLabel, VersionedProduct::getVersion)
+                .containsExactly("product1 saved", 1L);
+    }
+
+    @Test
+    public void editorRemove() {
+        Map<String, Map<String, Object>> data = new LinkedHashMap<>();
+        data.put("1", emptyMap());
+        data.put("2", emptyMap());
+
+        DataTablesEditorOutput<Product> output = productRepository.edit(getEditorInput(DataTablesEditorInput.Action.remove, data));
+        assertThat(output.getError()).isNull();
+        assertThat(output.getData()).isEmpty();
+        assertThat(productRepository.findAll()).containsOnly(Product.PRODUCT3);
+    }
+
+    @Test
+    public void editorFieldErrors() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("createdAt", "yesterday");
+        fields.put("unknown", "value");
+        Map<String, Map<String, Object>> data = new LinkedHashMap<>();
+        data.put("1", singletonMap("label", "product1 edited"));
+        data.put("2", fields);
+
+        DataTablesEditorOutput<Product> output = productRepository.edit(getEditorInput(DataTablesEditorInput.Action.edit, data));
+        assertThat(output.getFieldErrors()).extracting(DataTablesEditorOutput.FieldError::getId, DataTablesEditorOutput.FieldError::getName)
+                .containsExactly(tuple("2", "createdAt"), tuple("2", "unknown"));
+        assertThat(output.getData()).isEmpty();
+        assertThat(productRepository.findAll()).containsOnly(Product.PRODUCT1, Product.PRODUCT2, Product.PRODUCT3);
+    }
+
+    @Test
+    public void editorWriteError() {
+        productRepository.deleteById(3L);
+
+        Map<String, Object> duplicateFields = new LinkedHashMap<>();
+        duplicateFields.put("id", 1);
+        duplicateFields.put("isEnabled", false);
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("id", 3);
+        fields.put("isEnabled", false);
+        Map<String, Map<String, Object>> data = new LinkedHashMap<>();
+        data.put("0", duplicateFields);
+        data.put("1", fields);
+
+        DataTablesEditorOutput<Product> output = productRepository.edit(getEditorInput(DataTablesEditorInput.Action.create, data), BulkOperations.BulkMode.UNORDERED);
+        assertThat(output.getError()).startsWith("0: ");
+        assertThat(output.getData()).extracting(Product::getId).containsExactly(3L);
+    }
+
+    private DataTablesEditorInput getEditorInput(DataTablesEditorInput.Action action, Map<String, Map<String, Object>> data) {
+        DataTablesEditorInput input = new DataTablesEditorInput();
+        input.setAction(action);
+        input.setData(data);
+        return input;
+    }
+
+}
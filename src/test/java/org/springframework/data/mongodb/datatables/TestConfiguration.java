@@ -19,4 +19,9 @@ public class TestConfiguration {
     public MongoTemplate mongoTemplate() {
         return new MongoTemplate(mongoClient(), "test");
     }
+
+    @Bean
+    public DataTablesSearchIndexListener searchIndexListener() {
+        return new DataTablesSearchIndexListener();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package org.springframework.data.mongodb.datatables;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Document
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+class VersionedProduct {
+
+    @Id
+    private long id;
+
+    private String label;
+
+    @Version
+    private Long version;
+
+    @LastModifiedDate
+    private LocalDateTime lastModifiedDate;
+
+}